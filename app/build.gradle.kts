@@ -58,6 +58,18 @@ android {
     buildFeatures {
         viewBinding = true
     }
+
+    testOptions {
+        unitTests.all {
+            // Host build of the native library (see src/main/cpp/CMakeLists.txt);
+            // native tests are skipped when it has not been built
+            val hostLib = layout.buildDirectory.file("host-native/libopencvedgedetector.so").get().asFile
+            it.systemProperty("opencvedgedetector.library.path", hostLib.absolutePath)
+            // -Pbenchmark enforces the wall-clock budgets of the timing tests
+            it.systemProperty("opencvedgedetector.benchmark", project.hasProperty("benchmark").toString())
+            it.testLogging.showStandardStreams = true
+        }
+    }
 }
 
 dependencies {
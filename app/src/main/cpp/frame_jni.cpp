@@ -0,0 +1,158 @@
+#include <jni.h>
+#include <vector>
+#include <cstdint>
+#include <algorithm>
+
+#include "frame_processing.h"
+#include "native_log.h"
+
+// JNI entry points for NativeRenderer's frame processing. Nothing here touches GL,
+// so this file is also part of the host build used by the desktop JVM tests.
+
+// Persistent RGB output exposed to Java as a direct ByteBuffer
+static std::vector<uint8_t> g_rgbOut;
+static jobject g_rgbOutRef = nullptr;
+static int g_outW = 0, g_outH = 0;
+
+// Zero-copy frame path: planes are read straight from the camera's direct buffers
+struct Planes {
+    const uint8_t* y;
+    const uint8_t* u;
+    const uint8_t* v;
+};
+
+static bool hasCapacity(JNIEnv* env, jobject buf, jlong needed) {
+    jlong cap = env->GetDirectBufferCapacity(buf);
+    return cap >= 0 && cap >= needed;
+}
+
+// Resolves the plane addresses and checks they hold a full width x height frame
+static bool resolvePlanes(JNIEnv* env, jobject yBuf, jint yRowStride, jobject uBuf, jobject vBuf,
+                          jint uvRowStride, jint uvPixelStride, jint width, jint height, Planes* planes) {
+    if (width <= 0 || height <= 0) {
+        return false;
+    }
+
+    planes->y = (const uint8_t*)env->GetDirectBufferAddress(yBuf);
+    planes->u = (const uint8_t*)env->GetDirectBufferAddress(uBuf);
+    planes->v = (const uint8_t*)env->GetDirectBufferAddress(vBuf);
+    if (planes->y == nullptr || planes->u == nullptr || planes->v == nullptr) {
+        LOGE("Plane buffers must be direct");
+        return false;
+    }
+
+    int chromaW = (width + 1) / 2;
+    int chromaH = (height + 1) / 2;
+    jlong yNeeded = (jlong)(height - 1) * yRowStride + width;
+    jlong uvNeeded = (jlong)(chromaH - 1) * uvRowStride + (jlong)(chromaW - 1) * uvPixelStride + 1;
+    if (!hasCapacity(env, yBuf, yNeeded) || !hasCapacity(env, uBuf, uvNeeded)
+            || !hasCapacity(env, vBuf, uvNeeded)) {
+        LOGE("Plane buffers too small for %dx%d", width, height);
+        return false;
+    }
+    return true;
+}
+
+static void ensureOutput(JNIEnv* env, int width, int height) {
+    if (width == g_outW && height == g_outH) {
+        return;
+    }
+    // The old direct buffer would point at freed memory once we reallocate
+    if (g_rgbOutRef != nullptr) {
+        env->DeleteGlobalRef(g_rgbOutRef);
+        g_rgbOutRef = nullptr;
+    }
+    g_rgbOut.assign((size_t)width * height * 3, 0);
+    g_outW = width;
+    g_outH = height;
+    LOGI("Native output buffer allocated: %dx%d", width, height);
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_nachiket_opencvedgedetector_NativeRenderer_nativeProcessYuvPlanes(
+        JNIEnv* env, jclass, jobject yBuf, jint yRowStride, jobject uBuf, jobject vBuf,
+        jint uvRowStride, jint uvPixelStride, jint width, jint height) {
+    Planes p;
+    if (!resolvePlanes(env, yBuf, yRowStride, uBuf, vBuf, uvRowStride, uvPixelStride, width, height, &p)) {
+        return JNI_FALSE;
+    }
+
+    ensureOutput(env, width, height);
+    yuvToRgb(p.y, yRowStride, p.u, p.v, uvRowStride, uvPixelStride, width, height,
+             g_rgbOut.data(), width * 3);
+    return JNI_TRUE;
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_nachiket_opencvedgedetector_NativeRenderer_nativeProcessYuvRegion(
+        JNIEnv* env, jclass, jobject yBuf, jint yRowStride, jobject uBuf, jobject vBuf,
+        jint uvRowStride, jint uvPixelStride, jint width, jint height,
+        jint left, jint top, jint right, jint bottom) {
+    // Region must lie inside the frame on even coordinates so it covers whole chroma samples
+    if ((left | top) & 1 || left < 0 || top < 0 || right > width || bottom > height) {
+        LOGE("Invalid region %d,%d - %d,%d for %dx%d", left, top, right, bottom, width, height);
+        return JNI_FALSE;
+    }
+    Planes p;
+    if (!resolvePlanes(env, yBuf, yRowStride, uBuf, vBuf, uvRowStride, uvPixelStride, width, height, &p)) {
+        return JNI_FALSE;
+    }
+
+    ensureOutput(env, width, height);
+    if (right <= left || bottom <= top) {
+        return JNI_TRUE;
+    }
+    size_t chroma = (size_t)(top / 2) * uvRowStride + (size_t)(left / 2) * uvPixelStride;
+    yuvToRgb(p.y + (size_t)top * yRowStride + left, yRowStride,
+             p.u + chroma, p.v + chroma, uvRowStride, uvPixelStride,
+             right - left, bottom - top,
+             g_rgbOut.data() + ((size_t)top * width + left) * 3, width * 3);
+    return JNI_TRUE;
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_nachiket_opencvedgedetector_NativeRenderer_nativeProcessYuvLowRes(
+        JNIEnv* env, jclass, jobject yBuf, jint yRowStride, jobject uBuf, jobject vBuf,
+        jint uvRowStride, jint uvPixelStride, jint width, jint height, jint factor) {
+    Planes p;
+    if (factor < 1 || !resolvePlanes(env, yBuf, yRowStride, uBuf, vBuf, uvRowStride, uvPixelStride,
+                                     width, height, &p)) {
+        return JNI_FALSE;
+    }
+
+    ensureOutput(env, width, height);
+    yuvToRgbLowRes(p.y, yRowStride, p.u, p.v, uvRowStride, uvPixelStride, width, height,
+                   factor, g_rgbOut.data());
+    return JNI_TRUE;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_nachiket_opencvedgedetector_NativeRenderer_nativeClearOutput(
+        JNIEnv* env, jclass, jint width, jint height) {
+    if (width <= 0 || height <= 0) {
+        return;
+    }
+    ensureOutput(env, width, height);
+    std::fill(g_rgbOut.begin(), g_rgbOut.end(), 0);
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_nachiket_opencvedgedetector_NativeRenderer_nativeGetOutputBuffer(JNIEnv* env, jclass) {
+    if (g_rgbOut.empty()) {
+        return nullptr;
+    }
+    if (g_rgbOutRef == nullptr) {
+        jobject buf = env->NewDirectByteBuffer(g_rgbOut.data(), (jlong)g_rgbOut.size());
+        if (buf == nullptr) {
+            return nullptr;
+        }
+        g_rgbOutRef = env->NewGlobalRef(buf);
+        env->DeleteLocalRef(buf);
+    }
+    return env->NewLocalRef(g_rgbOutRef);
+}
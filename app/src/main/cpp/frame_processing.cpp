@@ -0,0 +1,86 @@
+#include "frame_processing.h"
+
+#include <algorithm>
+
+#include <opencv2/core.hpp>
+#include <opencv2/imgproc.hpp>
+
+// BT.601 limited range, 8-bit fixed point. Footroom luma (Y < 16) clamps to black,
+// as OpenCV's two-plane conversion does, so both paths agree within one level
+static inline void yuvPixelToRgb(int yValue, int uValue, int vValue, uint8_t* out) {
+    int c = 298 * std::max(0, yValue - 16);
+    int d = uValue - 128;
+    int e = vValue - 128;
+
+    int r = (c + 409 * e + 128) >> 8;
+    int g = (c - 100 * d - 208 * e + 128) >> 8;
+    int b = (c + 516 * d + 128) >> 8;
+
+    out[0] = (uint8_t)(r < 0 ? 0 : (r > 255 ? 255 : r));
+    out[1] = (uint8_t)(g < 0 ? 0 : (g > 255 ? 255 : g));
+    out[2] = (uint8_t)(b < 0 ? 0 : (b > 255 ? 255 : b));
+}
+
+static void yuvToRgbGeneric(const uint8_t* y, int yRowStride,
+                            const uint8_t* u, const uint8_t* v,
+                            int uvRowStride, int uvPixelStride,
+                            int width, int height, uint8_t* rgb, int rgbRowStride) {
+    for (int row = 0; row < height; row++) {
+        const uint8_t* yRow = y + (size_t)row * yRowStride;
+        const uint8_t* uRow = u + (size_t)(row >> 1) * uvRowStride;
+        const uint8_t* vRow = v + (size_t)(row >> 1) * uvRowStride;
+        uint8_t* out = rgb + (size_t)row * rgbRowStride;
+        for (int col = 0; col < width; col++) {
+            int uv = (col >> 1) * uvPixelStride;
+            yuvPixelToRgb(yRow[col], uRow[uv], vRow[uv], out);
+            out += 3;
+        }
+    }
+}
+
+void yuvToRgb(const uint8_t* y, int yRowStride,
+              const uint8_t* u, const uint8_t* v,
+              int uvRowStride, int uvPixelStride,
+              int width, int height, uint8_t* rgb, int rgbRowStride) {
+    bool even = (width % 2 == 0) && (height % 2 == 0);
+    if (even && uvPixelStride == 2 && (v + 1 == u || u + 1 == v)) {
+        // Interleaved chroma is NV21/NV12 in disguise: let OpenCV do it without copies
+        cv::Mat yMat(height, width, CV_8UC1, (void*)y, (size_t)yRowStride);
+        cv::Mat uvMat(height / 2, width / 2, CV_8UC2, (void*)(u < v ? u : v), (size_t)uvRowStride);
+        cv::Mat out(height, width, CV_8UC3, rgb, (size_t)rgbRowStride);
+        cv::cvtColorTwoPlane(yMat, uvMat, out, v < u ? cv::COLOR_YUV2RGB_NV21 : cv::COLOR_YUV2RGB_NV12);
+        return;
+    }
+    yuvToRgbGeneric(y, yRowStride, u, v, uvRowStride, uvPixelStride, width, height, rgb, rgbRowStride);
+}
+
+void yuvToRgbLowRes(const uint8_t* y, int yRowStride,
+                    const uint8_t* u, const uint8_t* v,
+                    int uvRowStride, int uvPixelStride,
+                    int width, int height, int factor, uint8_t* rgb) {
+    size_t rgbRowStride = (size_t)width * 3;
+    for (int by = 0; by < height; by += factor) {
+        int blockH = std::min(factor, height - by);
+        uint8_t* blockRow = rgb + (size_t)by * rgbRowStride;
+        for (int bx = 0; bx < width; bx += factor) {
+            int blockW = std::min(factor, width - bx);
+            // Sample the block centre
+            int sy = by + blockH / 2;
+            int sx = bx + blockW / 2;
+            int uv = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+            uint8_t pixel[3];
+            yuvPixelToRgb(y[(size_t)sy * yRowStride + sx], u[uv], v[uv], pixel);
+
+            uint8_t* out = blockRow + (size_t)bx * 3;
+            for (int i = 0; i < blockW; i++) {
+                out[i * 3] = pixel[0];
+                out[i * 3 + 1] = pixel[1];
+                out[i * 3 + 2] = pixel[2];
+            }
+        }
+        // Replicate the first row of the block strip down the rest of it
+        for (int r = 1; r < blockH; r++) {
+            std::copy(blockRow, blockRow + rgbRowStride, blockRow + r * rgbRowStride);
+        }
+    }
+}
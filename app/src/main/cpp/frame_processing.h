@@ -0,0 +1,19 @@
+#pragma once
+
+#include <cstdint>
+
+// GL-free frame processing, shared by the Android library and the host build
+
+// Converts a YUV_420_888 frame to packed RGB (BT.601 limited range).
+// Chroma planes may be planar (pixel stride 1) or interleaved (pixel stride 2).
+// rgbRowStride is in bytes, so a region can be written into a larger frame.
+void yuvToRgb(const uint8_t* y, int yRowStride,
+              const uint8_t* u, const uint8_t* v,
+              int uvRowStride, int uvPixelStride,
+              int width, int height, uint8_t* rgb, int rgbRowStride);
+
+// Cheap preview: converts one pixel per factor x factor block and fills the block with it.
+void yuvToRgbLowRes(const uint8_t* y, int yRowStride,
+                    const uint8_t* u, const uint8_t* v,
+                    int uvRowStride, int uvPixelStride,
+                    int width, int height, int factor, uint8_t* rgb);
@@ -0,0 +1,12 @@
+#pragma once
+
+// Android builds log to logcat; host builds (desktop JVM tests) log to stderr
+#ifdef __ANDROID__
+#include <android/log.h>
+#define LOGI(...) __android_log_print(ANDROID_LOG_INFO, "NativeCpp", __VA_ARGS__)
+#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "NativeCpp", __VA_ARGS__)
+#else
+#include <cstdio>
+#define LOGI(...) do { fprintf(stderr, "I/NativeCpp: "); fprintf(stderr, __VA_ARGS__); fputc('\n', stderr); } while (0)
+#define LOGE(...) do { fprintf(stderr, "E/NativeCpp: "); fprintf(stderr, __VA_ARGS__); fputc('\n', stderr); } while (0)
+#endif
@@ -1,12 +1,10 @@
 #include <jni.h>
-#include <android/log.h>
 #include <vector>
 #include <opencv2/core.hpp>
 #include <opencv2/imgproc.hpp>
 #include <GLES3/gl3.h>
 
-#define LOGI(...) __android_log_print(ANDROID_LOG_INFO, "NativeCpp", __VA_ARGS__)
-#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "NativeCpp", __VA_ARGS__)
+#include "native_log.h"
 
 // Globals
 GLuint g_prog = 0, g_tex = 0, g_vao = 0, g_vbo = 0;
@@ -14,6 +12,11 @@ GLint g_uTex = -1;
 GLint g_uMode = -1;
 int g_texW = 0, g_texH = 0;
 
+// Line overlay (detected Hough lines), drawn over the frame in NDC coordinates
+GLuint g_lineProg = 0, g_lineVao = 0, g_lineVbo = 0;
+GLint g_uLineColor = -1;
+GLsizei g_lineVertexCount = 0;
+
 // Simple full‐screen quad (position + UV coordinates)
 static const float QUAD[16] = {
         // pos      // UV
@@ -47,6 +50,73 @@ GLuint compileShader(GLenum type, const char* src) {
     return shader;
 }
 
+GLuint createProgram(const char* vert, const char* frag) {
+    GLuint vertexShader = compileShader(GL_VERTEX_SHADER, vert);
+    GLuint fragmentShader = compileShader(GL_FRAGMENT_SHADER, frag);
+    if (vertexShader == 0 || fragmentShader == 0) {
+        glDeleteShader(vertexShader);
+        glDeleteShader(fragmentShader);
+        return 0;
+    }
+
+    GLuint program = glCreateProgram();
+    glAttachShader(program, vertexShader);
+    glAttachShader(program, fragmentShader);
+    glLinkProgram(program);
+    glDeleteShader(vertexShader);
+    glDeleteShader(fragmentShader);
+
+    GLint linked;
+    glGetProgramiv(program, GL_LINK_STATUS, &linked);
+    if (!linked) {
+        GLint infoLen = 0;
+        glGetProgramiv(program, GL_INFO_LOG_LENGTH, &infoLen);
+        if (infoLen > 1) {
+            char* infoLog = (char*)malloc(sizeof(char) * infoLen);
+            glGetProgramInfoLog(program, infoLen, NULL, infoLog);
+            LOGE("Error linking program: %s", infoLog);
+            free(infoLog);
+        }
+        glDeleteProgram(program);
+        return 0;
+    }
+    return program;
+}
+
+void initLineOverlay() {
+    const char* LINE_VERT = R"(#version 300 es
+layout(location=0) in vec2 aPos;
+void main() {
+    gl_Position = vec4(aPos, 0.0, 1.0);
+}
+)";
+
+    const char* LINE_FRAG = R"(#version 300 es
+precision mediump float;
+uniform vec4 uColor;
+out vec4 fragColor;
+void main() {
+    fragColor = uColor;
+}
+)";
+
+    g_lineProg = createProgram(LINE_VERT, LINE_FRAG);
+    if (g_lineProg == 0) {
+        LOGE("Failed to create line overlay program");
+        return;
+    }
+    g_uLineColor = glGetUniformLocation(g_lineProg, "uColor");
+
+    glGenVertexArrays(1, &g_lineVao);
+    glGenBuffers(1, &g_lineVbo);
+    glBindVertexArray(g_lineVao);
+    glBindBuffer(GL_ARRAY_BUFFER, g_lineVbo);
+    glVertexAttribPointer(0, 2, GL_FLOAT, GL_FALSE, 2 * sizeof(float), (void*)0);
+    glEnableVertexAttribArray(0);
+    glBindVertexArray(0);
+    g_lineVertexCount = 0;
+}
+
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_nachiket_opencvedgedetector_MyRenderer_nativeInit(JNIEnv*, jobject) {
@@ -175,6 +245,8 @@ void main() {
     glEnable(GL_BLEND);
     glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 
+    initLineOverlay();
+
     LOGI("Native initialization completed successfully");
 }
 
@@ -232,6 +304,18 @@ Java_com_nachiket_opencvedgedetector_MyRenderer_nativeDrawFrame(JNIEnv*, jobject
     glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
     glBindVertexArray(0);
 
+    // Draw detected lines on top
+    if (g_lineProg != 0 && g_lineVertexCount > 0) {
+        glUseProgram(g_lineProg);
+        if (g_uLineColor >= 0) {
+            glUniform4f(g_uLineColor, 1.0f, 0.2f, 0.2f, 1.0f);
+        }
+        glLineWidth(3.0f);
+        glBindVertexArray(g_lineVao);
+        glDrawArrays(GL_LINES, 0, g_lineVertexCount);
+        glBindVertexArray(0);
+    }
+
     // Check for OpenGL errors
     GLenum error = glGetError();
     if (error != GL_NO_ERROR) {
@@ -239,6 +323,26 @@ Java_com_nachiket_opencvedgedetector_MyRenderer_nativeDrawFrame(JNIEnv*, jobject
     }
 }
 
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_nachiket_opencvedgedetector_MyRenderer_nativeSetOverlayLines(
+        JNIEnv* env, jobject, jfloatArray segments) {
+    // segments holds x0, y0, x1, y1 per line in NDC; must be called on the GL thread
+    if (g_lineVbo == 0) {
+        return;
+    }
+    jsize length = segments != nullptr ? env->GetArrayLength(segments) : 0;
+    std::vector<float> vertices(length);
+    if (length > 0) {
+        env->GetFloatArrayRegion(segments, 0, length, vertices.data());
+    }
+
+    glBindBuffer(GL_ARRAY_BUFFER, g_lineVbo);
+    glBufferData(GL_ARRAY_BUFFER, vertices.size() * sizeof(float), vertices.data(), GL_DYNAMIC_DRAW);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+    g_lineVertexCount = (GLsizei)(length / 2);
+}
+
 // Unused functions for compatibility
 extern "C"
 JNIEXPORT void JNICALL
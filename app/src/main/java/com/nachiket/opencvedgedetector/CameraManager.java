@@ -40,7 +40,10 @@ public class CameraManager {
                     Image image = null;
                     try {
                         image = reader.acquireNextImage();
-                        if (frameCallback != null && image != null) {
+                        if (planeCallback != null && image != null) {
+                            // Hand the planes over untouched; they are only valid until image.close()
+                            deliverPlanes(image);
+                        } else if (frameCallback != null && image != null) {
                             // Extract YUV data from all three planes
                             byte[] yuvData = extractYuvData(image);
                             if (yuvData != null) {
@@ -56,6 +59,21 @@ public class CameraManager {
                     }
                 }
 
+                private void deliverPlanes(Image image) {
+                    Image.Plane[] planes = image.getPlanes();
+                    if (planes.length < 3) {
+                        Log.e(TAG, "Invalid number of planes: " + planes.length);
+                        return;
+                    }
+
+                    // U and V share row and pixel strides in YUV_420_888
+                    planeCallback.onPlanesAvailable(
+                            planes[0].getBuffer(), planes[0].getRowStride(),
+                            planes[1].getBuffer(), planes[2].getBuffer(),
+                            planes[1].getRowStride(), planes[1].getPixelStride(),
+                            image.getWidth(), image.getHeight());
+                }
+
                 private byte[] extractYuvData(Image image) {
                     try {
                         // Extract data from Y, U, V planes
@@ -94,11 +112,23 @@ public class CameraManager {
     private Handler backgroundHandler;
     private Size previewSize;
     private FrameCallback frameCallback;
+    private PlaneCallback planeCallback;
 
     public interface FrameCallback {
         void onFrameAvailable(byte[] frameData, int width, int height);
     }
 
+    /**
+     * Receives the camera's direct plane buffers without copying them. The buffers are
+     * owned by the camera and must not be used after the callback returns.
+     */
+    public interface PlaneCallback {
+        void onPlanesAvailable(ByteBuffer yPlane, int yRowStride,
+                               ByteBuffer uPlane, ByteBuffer vPlane,
+                               int uvRowStride, int uvPixelStride,
+                               int width, int height);
+    }
+
     public CameraManager(Context context) {
         this.context = context;
         Log.d(TAG, "CameraManager created");
@@ -109,6 +139,11 @@ public class CameraManager {
         Log.d(TAG, "Frame callback set");
     }
 
+    public void setPlaneCallback(PlaneCallback callback) {
+        this.planeCallback = callback;
+        Log.d(TAG, "Plane callback set");
+    }
+
     public void startCamera() {
         Log.d(TAG, "Starting camera");
         try {
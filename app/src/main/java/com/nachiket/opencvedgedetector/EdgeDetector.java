@@ -0,0 +1,267 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CPU Sobel edge map of the luma plane, for stages that need edges as data rather than
+ * on screen. Magnitude is |Gx| + |Gy| scaled to 0..255; pixels at or above the
+ * threshold become 255, everything else (including the one-pixel border) 0.
+ *
+ * <p>With separate low and high thresholds, edges are traced with hysteresis as in Canny:
+ * pixels at or above {@code high} are edges, and pixels at or above {@code low} are edges
+ * only where 8-connected to one. Tracing is sequential, after the parallel Sobel pass.
+ */
+public class EdgeDetector {
+    private static final byte EDGE = (byte) 255;
+    // Candidate between the thresholds, resolved to EDGE or 0 by hysteresis
+    private static final byte WEAK = 1;
+    // Above one weak pixel in this many, hysteresis starts with branch-free sweeps
+    private static final int DENSE_WEAK_RATIO = 8;
+
+    private final StripExecutor executor;
+
+    private int width = 0;
+    private int height = 0;
+    private byte[] edges;
+    // Three luma rows per strip, so each row is read from the buffer in one bulk get
+    private byte[][][] rows;
+    private final int[] stripWeak;
+    // Pixel indices still to trace from, grown on demand
+    private int[] stack = new int[4096];
+    private List<RegionOfInterest> lastRegions;
+
+    public EdgeDetector() {
+        this(StripExecutor.shared());
+    }
+
+    public EdgeDetector(StripExecutor executor) {
+        this.executor = executor;
+        this.stripWeak = new int[executor.getParallelism()];
+    }
+
+    /** @return edge map of width * height bytes, owned by this instance and reused per frame */
+    public byte[] detect(ByteBuffer luma, int rowStride, int width, int height, int threshold) {
+        return detect(luma, rowStride, width, height, threshold, threshold);
+    }
+
+    /** Edge map with hysteresis between {@code low} and {@code high}; see the class comment. */
+    public byte[] detect(ByteBuffer luma, int rowStride, int width, int height, int low, int high) {
+        // The border is never written, so a reused map only needs its interior recomputed
+        ensureCapacity(width, height);
+        lastRegions = null;
+
+        int weak = sobel(luma, rowStride, low, high, 1, height - 1, 1, width - 1);
+        if (weak > 0) {
+            boolean dense = (long) weak * DENSE_WEAK_RATIO > (long) width * height;
+            trace(1, height - 1, 1, width - 1, dense);
+            dropWeak(1, height - 1, 1, width - 1);
+        }
+        return edges;
+    }
+
+    /**
+     * Edge map computed only inside {@code regions} (disjoint, frame coordinates); all other
+     * pixels are 0. The luma plane must be valid one pixel beyond each region. The map is
+     * cleared only when the region list instance or the frame size changes.
+     */
+    public byte[] detect(ByteBuffer luma, int rowStride, int width, int height, int threshold,
+                         List<RegionOfInterest> regions) {
+        return detect(luma, rowStride, width, height, threshold, threshold, regions);
+    }
+
+    /** Region edge map with hysteresis; edges are traced across touching regions. */
+    public byte[] detect(ByteBuffer luma, int rowStride, int width, int height, int low, int high,
+                         List<RegionOfInterest> regions) {
+        if (ensureCapacity(width, height) || regions != lastRegions) {
+            Arrays.fill(edges, (byte) 0);
+            lastRegions = regions;
+        }
+
+        int weak = 0;
+        long area = 0;
+        for (RegionOfInterest region : regions) {
+            weak += sobel(luma, rowStride, low, high,
+                    Math.max(1, region.top), Math.min(height - 1, region.bottom),
+                    Math.max(1, region.left), Math.min(width - 1, region.right));
+            area += (long) region.width() * region.height();
+        }
+        if (weak > 0) {
+            // Traced from every region before any weak pixel is dropped
+            boolean dense = (long) weak * DENSE_WEAK_RATIO > area;
+            for (RegionOfInterest region : regions) {
+                trace(Math.max(1, region.top), Math.min(height - 1, region.bottom),
+                        Math.max(1, region.left), Math.min(width - 1, region.right), dense);
+            }
+            for (RegionOfInterest region : regions) {
+                dropWeak(Math.max(1, region.top), Math.min(height - 1, region.bottom),
+                        Math.max(1, region.left), Math.min(width - 1, region.right));
+            }
+        }
+        return edges;
+    }
+
+    /** @return true if the edge map was reallocated */
+    private boolean ensureCapacity(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Unsupported frame size: " + width + "x" + height);
+        }
+        if (width == this.width && height == this.height) {
+            return false;
+        }
+        this.width = width;
+        this.height = height;
+        edges = new byte[width * height];
+        rows = new byte[executor.getParallelism()][3][width];
+        return true;
+    }
+
+    /** @return the number of weak pixels written */
+    private int sobel(ByteBuffer luma, int rowStride, int low, int high, int y0, int y1, int x0, int x1) {
+        if (y1 <= y0 || x1 <= x0) {
+            return 0;
+        }
+        final byte[] out = edges;
+        final int w = width;
+        // Columns x0 - 1 .. x1, so row index i holds pixel x0 - 1 + i
+        final int span = x1 - x0 + 2;
+
+        int strips = executor.run(y1 - y0, (strip, start, end) -> {
+            int weak = 0;
+            ByteBuffer src = luma.duplicate();
+            src.clear();
+            byte[] above = rows[strip][0];
+            byte[] row = rows[strip][1];
+            byte[] below = rows[strip][2];
+            readRow(src, (y0 + start - 1) * rowStride + x0 - 1, above, span);
+            readRow(src, (y0 + start) * rowStride + x0 - 1, row, span);
+
+            for (int y = y0 + start; y < y0 + end; y++) {
+                readRow(src, (y + 1) * rowStride + x0 - 1, below, span);
+                int o = y * w + x0 - 1;
+                for (int i = 1; i < span - 1; i++) {
+                    int tl = above[i - 1] & 0xFF;
+                    int tm = above[i] & 0xFF;
+                    int tr = above[i + 1] & 0xFF;
+                    int ml = row[i - 1] & 0xFF;
+                    int mr = row[i + 1] & 0xFF;
+                    int bl = below[i - 1] & 0xFF;
+                    int bm = below[i] & 0xFF;
+                    int br = below[i + 1] & 0xFF;
+
+                    int gx = tr + 2 * mr + br - tl - 2 * ml - bl;
+                    int gy = bl + 2 * bm + br - tl - 2 * tm - tr;
+                    int magnitude = (Math.abs(gx) + Math.abs(gy)) >> 3;
+
+                    if (magnitude >= high) {
+                        out[o + i] = EDGE;
+                    } else if (magnitude >= low) {
+                        out[o + i] = WEAK;
+                        weak++;
+                    } else {
+                        out[o + i] = 0;
+                    }
+                }
+                byte[] recycled = above;
+                above = row;
+                row = below;
+                below = recycled;
+            }
+            stripWeak[strip] = weak;
+        });
+
+        int total = 0;
+        for (int k = 0; k < strips; k++) {
+            total += stripWeak[k];
+        }
+        return total;
+    }
+
+    /**
+     * Promotes weak pixels in the area that are 8-connected to an edge. Only interior pixels
+     * are ever non-zero, so neighbours never leave the frame.
+     */
+    private void trace(int y0, int y1, int x0, int x1, boolean dense) {
+        final byte[] map = edges;
+        final int w = width;
+        if (dense) {
+            sweep(map, w, y0, y1, x0, x1);
+        }
+
+        // Depth first from any weak pixel touching an edge, which also finishes paths that
+        // double back on the sweeps
+        for (int y = y0; y < y1; y++) {
+            for (int p = y * w + x0, end = y * w + x1; p < end; p++) {
+                if (map[p] == WEAK && (map[p - w - 1] | map[p - w] | map[p - w + 1] | map[p - 1]
+                        | map[p + 1] | map[p + w - 1] | map[p + w] | map[p + w + 1]) < 0) {
+                    map[p] = EDGE;
+                    promoteNeighbours(map, w, p);
+                }
+            }
+        }
+    }
+
+    /**
+     * One branch-free pass each way, promoting a weak pixel when a neighbour already visited
+     * is an edge (negative). Settles most of a noisy frame's weak pixels, where a depth-first
+     * trace through all of them would be dominated by mispredicted branches.
+     */
+    private static void sweep(byte[] map, int w, int y0, int y1, int x0, int x1) {
+        for (int y = y0; y < y1; y++) {
+            for (int p = y * w + x0, end = y * w + x1; p < end; p++) {
+                int m = map[p];
+                int near = map[p - 1] | map[p - w - 1] | map[p - w] | map[p - w + 1];
+                map[p] = (byte) (m | ((near >> 31) & ((m << 31) >> 31)));
+            }
+        }
+        for (int y = y1 - 1; y >= y0; y--) {
+            for (int p = y * w + x1 - 1, end = y * w + x0; p >= end; p--) {
+                int m = map[p];
+                int near = map[p + 1] | map[p + w - 1] | map[p + w] | map[p + w + 1];
+                map[p] = (byte) (m | ((near >> 31) & ((m << 31) >> 31)));
+            }
+        }
+    }
+
+    private void promoteNeighbours(byte[] map, int w, int p) {
+        int[] pending = stack;
+        int top = 0;
+        while (true) {
+            for (int dy = -w; dy <= w; dy += w) {
+                for (int n = p + dy - 1; n <= p + dy + 1; n++) {
+                    if (map[n] == WEAK) {
+                        map[n] = EDGE;
+                        if (top == pending.length) {
+                            pending = stack = Arrays.copyOf(pending, top * 2);
+                        }
+                        pending[top++] = n;
+                    }
+                }
+            }
+            if (top == 0) {
+                return;
+            }
+            p = pending[--top];
+        }
+    }
+
+    private void dropWeak(int y0, int y1, int x0, int x1) {
+        final byte[] map = edges;
+        final int w = width;
+        executor.run(y1 - y0, (strip, start, end) -> {
+            for (int y = y0 + start; y < y0 + end; y++) {
+                for (int p = y * w + x0, stop = y * w + x1; p < stop; p++) {
+                    if (map[p] == WEAK) {
+                        map[p] = 0;
+                    }
+                }
+            }
+        });
+    }
+
+    private static void readRow(ByteBuffer src, int offset, byte[] row, int length) {
+        src.position(offset);
+        src.get(row, 0, length);
+    }
+}
@@ -0,0 +1,122 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reconstructs edge maps from an {@link EdgeMapEncoder} packet stream. Delta frames that
+ * arrive without a matching base (on joining late, or after frames were lost) are skipped
+ * until the next keyframe resynchronizes the decoder.
+ */
+public class EdgeMapDecoder {
+    public static final int NEED_MORE_DATA = 0;
+    public static final int FRAME_DECODED = 1;
+    public static final int FRAME_SKIPPED = 2;
+
+    private int width = 0;
+    private int height = 0;
+    private int sequence = -1;
+    private boolean synced = false;
+    private byte[] edges;
+
+    /**
+     * Consumes one packet from {@code in} if it holds a complete one.
+     *
+     * @return {@link #NEED_MORE_DATA} (nothing consumed), {@link #FRAME_DECODED}, or
+     *         {@link #FRAME_SKIPPED} for a delta frame the decoder has no base for
+     */
+    public int decode(ByteBuffer in) {
+        if (in.remaining() < EdgeMapEncoder.HEADER_SIZE) {
+            return NEED_MORE_DATA;
+        }
+        int start = in.position();
+        if (in.getShort(start) != EdgeMapEncoder.MAGIC || in.get(start + 2) != EdgeMapEncoder.VERSION) {
+            throw new IllegalArgumentException("Not an edge map packet at offset " + start);
+        }
+        byte type = in.get(start + 3);
+        int frameSequence = in.getInt(start + 4);
+        int frameWidth = in.getShort(start + 8) & 0xFFFF;
+        int frameHeight = in.getShort(start + 10) & 0xFFFF;
+        int length = in.getInt(start + 12);
+        if (in.remaining() < EdgeMapEncoder.HEADER_SIZE + length) {
+            return NEED_MORE_DATA;
+        }
+        in.position(start + EdgeMapEncoder.HEADER_SIZE);
+        int end = in.position() + length;
+
+        boolean keyframe = type == EdgeMapEncoder.TYPE_KEYFRAME;
+        if (!keyframe && (!synced || frameSequence != sequence + 1
+                || frameWidth != width || frameHeight != height)) {
+            synced = false;
+            in.position(end);
+            return FRAME_SKIPPED;
+        }
+
+        int pixels = frameWidth * frameHeight;
+        if (keyframe) {
+            if (edges == null || edges.length != pixels) {
+                edges = new byte[pixels];
+            } else {
+                Arrays.fill(edges, (byte) 0);
+            }
+            width = frameWidth;
+            height = frameHeight;
+        }
+
+        // Runs alternate 0 and 1 starting with 0; 1-runs flip the current mask
+        final byte[] map = edges;
+        int offset = 0;
+        boolean flip = false;
+        while (in.position() < end) {
+            int run = readVarint(in);
+            if (offset + run > pixels) {
+                throw new IllegalArgumentException("Run overflows frame in packet " + frameSequence);
+            }
+            if (flip) {
+                for (int i = offset; i < offset + run; i++) {
+                    map[i] = (byte) ~map[i];
+                }
+            }
+            offset += run;
+            flip = !flip;
+        }
+        if (offset != pixels) {
+            throw new IllegalArgumentException("Packet " + frameSequence + " covers " + offset
+                    + " of " + pixels + " pixels");
+        }
+
+        sequence = frameSequence;
+        synced = true;
+        return FRAME_DECODED;
+    }
+
+    /** @return the current map, 255 for edges and 0 elsewhere; reused by later frames */
+    public byte[] getEdges() {
+        return edges;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return sequence number of the last decoded frame, or -1 */
+    public int getSequence() {
+        return sequence;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed run length");
+    }
+}
@@ -0,0 +1,133 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compresses a stream of edge maps for sending over the network. Each map is reduced to a
+ * binary mask; keyframes run-length encode the mask itself, delta frames run-length encode
+ * its XOR with the previous mask, which is almost all zeros for a steady scene.
+ *
+ * <p>Packet layout (big-endian): magic "EM" (2), version (1), type (1), sequence (4),
+ * width (2), height (2), payload length (4), then the payload: varint lengths of alternating
+ * runs of 0 and 1 bits in row-major order, starting with a (possibly empty) run of 0s.
+ */
+public class EdgeMapEncoder {
+    public static final short MAGIC = 0x454D;
+    public static final byte VERSION = 1;
+    public static final byte TYPE_KEYFRAME = 1;
+    public static final byte TYPE_DELTA = 2;
+    public static final int HEADER_SIZE = 16;
+
+    /** One encoded packet. The buffer is shared, so callers must work on {@link #buffer()} copies. */
+    public static final class EncodedFrame {
+        public final int sequence;
+        public final boolean keyframe;
+        /** Size of the uncompressed one-byte-per-pixel edge map. */
+        public final int rawBytes;
+        private final ByteBuffer packet;
+
+        EncodedFrame(int sequence, boolean keyframe, int rawBytes, ByteBuffer packet) {
+            this.sequence = sequence;
+            this.keyframe = keyframe;
+            this.rawBytes = rawBytes;
+            this.packet = packet;
+        }
+
+        /** @return a fresh read-only view of the whole packet */
+        public ByteBuffer buffer() {
+            return packet.asReadOnlyBuffer();
+        }
+
+        public int size() {
+            return packet.remaining();
+        }
+    }
+
+    private final int keyframeInterval;
+
+    private int width = 0;
+    private int height = 0;
+    private byte[] previous;
+    private byte[] runs = new byte[4096];
+    private int sequence = 0;
+    private int sinceKeyframe = 0;
+    private boolean keyframeRequested = false;
+
+    /** @param keyframeInterval frames between keyframes; 1 makes every frame a keyframe */
+    public EdgeMapEncoder(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /** Makes the next encoded frame a keyframe. */
+    public void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    /** Encodes an edge map where any non-zero byte is an edge. */
+    public EncodedFrame encode(byte[] edges, int width, int height) {
+        if (width <= 0 || height <= 0 || width > 0xFFFF || height > 0xFFFF) {
+            throw new IllegalArgumentException("Unsupported frame size: " + width + "x" + height);
+        }
+        int pixels = width * height;
+        boolean keyframe = keyframeRequested || previous == null
+                || width != this.width || height != this.height
+                || sinceKeyframe >= keyframeInterval - 1;
+        if (previous == null || previous.length != pixels) {
+            previous = new byte[pixels];
+        }
+        if (keyframe) {
+            Arrays.fill(previous, (byte) 0);
+            sinceKeyframe = 0;
+            keyframeRequested = false;
+        } else {
+            sinceKeyframe++;
+        }
+        this.width = width;
+        this.height = height;
+
+        // XOR against the previous mask (all zero for a keyframe) and emit run lengths
+        final byte[] prev = previous;
+        int length = 0;
+        int bit = 0;
+        int run = 0;
+        for (int i = 0; i < pixels; i++) {
+            int mask = edges[i] != 0 ? 1 : 0;
+            int value = mask ^ prev[i];
+            prev[i] = (byte) mask;
+            if (value == bit) {
+                run++;
+            } else {
+                length = writeVarint(length, run);
+                bit = value;
+                run = 1;
+            }
+        }
+        length = writeVarint(length, run);
+
+        ByteBuffer packet = ByteBuffer.allocate(HEADER_SIZE + length);
+        packet.putShort(MAGIC);
+        packet.put(VERSION);
+        packet.put(keyframe ? TYPE_KEYFRAME : TYPE_DELTA);
+        packet.putInt(sequence);
+        packet.putShort((short) width);
+        packet.putShort((short) height);
+        packet.putInt(length);
+        packet.put(runs, 0, length);
+        packet.flip();
+
+        return new EncodedFrame(sequence++, keyframe, pixels, packet);
+    }
+
+    private int writeVarint(int offset, int value) {
+        if (offset + 5 > runs.length) {
+            runs = Arrays.copyOf(runs, runs.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            runs[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        runs[offset++] = (byte) value;
+        return offset;
+    }
+}
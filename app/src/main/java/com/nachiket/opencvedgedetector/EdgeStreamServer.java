@@ -0,0 +1,379 @@
+package com.nachiket.opencvedgedetector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams compressed edge maps to any number of TCP clients from a single non-blocking
+ * selector thread. Frames are encoded once on the publishing thread and the same packet
+ * is shared by every client; each client's queued packets are flushed with one gathering
+ * write. A client that falls more than {@code maxQueuedFrames} behind has frames dropped
+ * instead of buffered, and like a newly connected client it resumes at the next keyframe.
+ * A client that fails while connecting is dropped on its own; a selector failure stops the
+ * server, disconnects every client and is reported by {@link #getFailure()}.
+ */
+public class EdgeStreamServer implements Closeable {
+    private static final int OUTBOX_CAPACITY = 4;
+    private static final int MAX_GATHER = 16;
+
+    /** Per-client counters, as of the moment {@link #getClientStats()} was called. */
+    public static final class ClientStats {
+        public final String address;
+        public final long framesSent;
+        public final long framesDropped;
+        public final long bytesSent;
+        /** Compressed and uncompressed sizes of the frames fully sent. */
+        public final long encodedBytesSent;
+        public final long rawBytesSent;
+        public final long connectedNanos;
+
+        ClientStats(String address, long framesSent, long framesDropped, long bytesSent,
+                    long encodedBytesSent, long rawBytesSent, long connectedNanos) {
+            this.address = address;
+            this.framesSent = framesSent;
+            this.framesDropped = framesDropped;
+            this.bytesSent = bytesSent;
+            this.encodedBytesSent = encodedBytesSent;
+            this.rawBytesSent = rawBytesSent;
+            this.connectedNanos = connectedNanos;
+        }
+
+        public double compressionRatio() {
+            return encodedBytesSent == 0 ? 0 : (double) rawBytesSent / encodedBytesSent;
+        }
+
+        public double bytesPerSecond() {
+            return connectedNanos == 0 ? 0 : bytesSent * 1e9 / connectedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: %d frames sent, %d dropped, %d bytes, ratio %.1f:1, %.1f KiB/s",
+                    address, framesSent, framesDropped, bytesSent, compressionRatio(),
+                    bytesPerSecond() / 1024);
+        }
+    }
+
+    private static final class Client {
+        final SocketChannel channel;
+        final String address;
+        final long connectedAt = System.nanoTime();
+        final ArrayDeque<EdgeMapEncoder.EncodedFrame> frames = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        boolean awaitingKeyframe = true;
+
+        // Written on the selector thread only
+        volatile long framesSent;
+        volatile long framesDropped;
+        volatile long bytesSent;
+        volatile long encodedBytesSent;
+        volatile long rawBytesSent;
+
+        Client(SocketChannel channel, String address) {
+            this.channel = channel;
+            this.address = address;
+        }
+
+        /** Frames queued whose first byte has not been written yet. */
+        int unstarted() {
+            ByteBuffer head = pending.peekFirst();
+            return head != null && head.position() > 0 ? pending.size() - 1 : pending.size();
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final EdgeMapEncoder encoder;
+    private final int maxQueuedFrames;
+    private final ArrayBlockingQueue<EdgeMapEncoder.EncodedFrame> outbox =
+            new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running = false;
+    private volatile Exception failure;
+    private Thread thread;
+
+    /**
+     * @param port             TCP port to listen on, or 0 for any free port
+     * @param keyframeInterval frames between keyframes, which bounds how long a late or
+     *                         lagging client waits to resynchronize
+     * @param maxQueuedFrames  frames a client may have queued before new ones are dropped
+     */
+    public EdgeStreamServer(int port, int keyframeInterval, int maxQueuedFrames) throws IOException {
+        this(new InetSocketAddress(port), keyframeInterval, maxQueuedFrames);
+    }
+
+    public EdgeStreamServer(SocketAddress address, int keyframeInterval, int maxQueuedFrames)
+            throws IOException {
+        this.encoder = new EdgeMapEncoder(keyframeInterval);
+        this.maxQueuedFrames = Math.max(1, maxQueuedFrames);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::serve, "EdgeStreamServer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return false before {@link #start()}, after {@link #close()} or once serving failed */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** @return the error that stopped the selector thread, or null */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Encodes an edge map (any non-zero byte is an edge) and queues it for every client.
+     * Must be called from one thread at a time; {@code edges} may be reused on return.
+     * Frames published while the server is not running are discarded without encoding.
+     */
+    public void publish(byte[] edges, int width, int height) {
+        if (!running) {
+            return;
+        }
+        EdgeMapEncoder.EncodedFrame frame = encoder.encode(edges, width, height);
+        if (!outbox.offer(frame)) {
+            // The selector thread is behind: lose this frame for everyone rather than block,
+            // and restart the delta chain so no client decodes across the gap
+            encoder.requestKeyframe();
+        }
+        selector.wakeup();
+    }
+
+    public List<ClientStats> getClientStats() {
+        long now = System.nanoTime();
+        List<ClientStats> stats = new ArrayList<>(clients.size());
+        for (Client c : clients) {
+            stats.add(new ClientStats(c.address, c.framesSent, c.framesDropped, c.bytesSent,
+                    c.encodedBytesSent, c.rawBytesSent, now - c.connectedAt));
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread serving;
+        synchronized (this) {
+            running = false;
+            serving = thread;
+            thread = null;
+        }
+        selector.wakeup();
+        if (serving != null) {
+            try {
+                serving.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Client c : clients) {
+            closeQuietly(c.channel);
+        }
+        clients.clear();
+        serverChannel.close();
+        selector.close();
+    }
+
+    private void serve() {
+        ByteBuffer discard = ByteBuffer.allocate(512);
+        try {
+            while (running) {
+                selector.select();
+                dispatchFrames();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Client client = (Client) key.attachment();
+                    if (key.isReadable()) {
+                        // Clients send nothing; reading only notices when they hang up
+                        discard.clear();
+                        if (readQuietly(client, discard) < 0) {
+                            disconnect(key, client);
+                            continue;
+                        }
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(key, client);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            running = false;
+            for (Client c : clients) {
+                closeQuietly(c.channel);
+            }
+            clients.clear();
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            channel = serverChannel.accept();
+        } catch (IOException e) {
+            // The connection is lost, not the listening socket
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Client client = new Client(channel, String.valueOf(channel.socket().getRemoteSocketAddress()));
+            channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+        } catch (IOException e) {
+            // Typically a client that hung up mid-handshake; only it is dropped
+            closeQuietly(channel);
+        }
+    }
+
+    private void dispatchFrames() {
+        EdgeMapEncoder.EncodedFrame frame;
+        while ((frame = outbox.poll()) != null) {
+            for (Client client : clients) {
+                enqueue(client, frame);
+            }
+        }
+
+        for (Client client : clients) {
+            SelectionKey key = client.channel.keyFor(selector);
+            if (key != null && key.isValid() && !client.pending.isEmpty()) {
+                flush(key, client);
+            }
+        }
+    }
+
+    private void enqueue(Client client, EdgeMapEncoder.EncodedFrame frame) {
+        if (frame.keyframe) {
+            // A keyframe supersedes everything not yet on the wire
+            while (client.unstarted() > 0) {
+                client.pending.removeLast();
+                client.frames.removeLast();
+                client.framesDropped++;
+            }
+            client.awaitingKeyframe = false;
+        } else if (client.awaitingKeyframe) {
+            client.framesDropped++;
+            return;
+        } else if (client.unstarted() >= maxQueuedFrames) {
+            // Too slow: the delta chain is broken until the next keyframe
+            client.awaitingKeyframe = true;
+            client.framesDropped++;
+            return;
+        }
+        client.pending.addLast(frame.buffer());
+        client.frames.addLast(frame);
+    }
+
+    private void flush(SelectionKey key, Client client) {
+        int count = 0;
+        for (ByteBuffer buffer : client.pending) {
+            if (count == MAX_GATHER) {
+                break;
+            }
+            client.gather[count++] = buffer;
+        }
+        try {
+            if (count > 0) {
+                long written = client.channel.write(client.gather, 0, count);
+                client.bytesSent += written;
+            }
+        } catch (IOException e) {
+            disconnect(key, client);
+            return;
+        } finally {
+            Arrays.fill(client.gather, 0, count, null);
+        }
+
+        while (!client.pending.isEmpty() && !client.pending.peekFirst().hasRemaining()) {
+            client.pending.removeFirst();
+            EdgeMapEncoder.EncodedFrame sent = client.frames.removeFirst();
+            client.framesSent++;
+            client.encodedBytesSent += sent.size();
+            client.rawBytesSent += sent.rawBytes;
+        }
+        int ops = SelectionKey.OP_READ;
+        if (!client.pending.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+
+    private int readQuietly(Client client, ByteBuffer buffer) {
+        try {
+            return client.channel.read(buffer);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void disconnect(SelectionKey key, Client client) {
+        key.cancel();
+        clients.remove(client);
+        closeQuietly(client.channel);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do with a failed close
+        }
+    }
+}
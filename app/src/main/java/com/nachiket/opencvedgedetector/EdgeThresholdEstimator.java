@@ -0,0 +1,256 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Derives edge thresholds from per-frame luma and gradient histograms so edge output stays
+ * stable as lighting changes. Histograms are built from a subsample grid whose phase moves
+ * every frame, so over step * step frames every pixel contributes. Each strip counts into
+ * its own bins, which are merged at the end, and the thresholds are smoothed over time.
+ * Thresholds use {@link EdgeDetector} magnitude units: the high threshold marks edges and
+ * the low one extends them by hysteresis.
+ */
+public class EdgeThresholdEstimator {
+    public static final int METHOD_MEDIAN = 0;
+    public static final int METHOD_OTSU = 1;
+
+    private static final int BINS = 256;
+    // Auto-Canny spread around the luma median
+    private static final float MEDIAN_SIGMA = 0.33f;
+    // OpenCV Canny's L1 Sobel magnitude is 8x EdgeDetector's
+    private static final float CANNY_TO_EDGE_UNITS = 1f / 8f;
+
+    /** One estimation pass, for monitoring. The histogram arrays are shared and must not be modified. */
+    public static final class Snapshot {
+        public final int[] lumaHistogram;
+        public final int[] gradientHistogram;
+        public final int samples;
+        public final int rawLow;
+        public final int rawHigh;
+        public final float low;
+        public final float high;
+        public final long computeNanos;
+
+        Snapshot(int[] lumaHistogram, int[] gradientHistogram, int samples,
+                 int rawLow, int rawHigh, float low, float high, long computeNanos) {
+            this.lumaHistogram = lumaHistogram;
+            this.gradientHistogram = gradientHistogram;
+            this.samples = samples;
+            this.rawLow = rawLow;
+            this.rawHigh = rawHigh;
+            this.low = low;
+            this.high = high;
+            this.computeNanos = computeNanos;
+        }
+    }
+
+    private final StripExecutor executor;
+    // Per-strip bins: luma in [0, 256), gradient in [256, 512)
+    private final int[][] stripBins;
+
+    private volatile int method = METHOD_OTSU;
+    private volatile int subsample = 4;
+    private volatile float smoothing = 0.1f;
+
+    private int frameIndex = 0;
+    private float smoothedLow = -1f;
+    private float smoothedHigh = -1f;
+    private volatile Snapshot snapshot;
+
+    public EdgeThresholdEstimator() {
+        this(StripExecutor.shared());
+    }
+
+    public EdgeThresholdEstimator(StripExecutor executor) {
+        this.executor = executor;
+        this.stripBins = new int[executor.getParallelism()][2 * BINS];
+    }
+
+    public void setMethod(int method) {
+        this.method = method;
+    }
+
+    /** Samples every {@code step}-th pixel in each direction; 1 samples every pixel. */
+    public void setSubsample(int step) {
+        this.subsample = Math.max(1, step);
+    }
+
+    /** Weight of the newest frame in the running thresholds, in (0, 1]; 1 disables smoothing. */
+    public void setSmoothing(float alpha) {
+        this.smoothing = Math.max(0.001f, Math.min(1f, alpha));
+    }
+
+    public int getLowThreshold() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : Math.round(s.low);
+    }
+
+    public int getHighThreshold() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : Math.round(s.high);
+    }
+
+    /** @return the latest estimation pass, or null before the first frame */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void update(ByteBuffer luma, int rowStride, int width, int height) {
+        update(luma, rowStride, width, height,
+                Collections.singletonList(new RegionOfInterest(0, 0, width, height)));
+    }
+
+    /**
+     * Samples only inside {@code regions} (frame coordinates). The luma plane must be valid
+     * one pixel beyond each region for the gradient.
+     */
+    public void update(ByteBuffer luma, int rowStride, int width, int height,
+                       List<RegionOfInterest> regions) {
+        long start = System.nanoTime();
+        final int step = subsample;
+        final int phase = frameIndex++ % (step * step);
+        final int phaseX = phase % step;
+        final int phaseY = phase / step;
+
+        // Sampled rows of every region laid end to end, so strips balance across regions
+        final RegionOfInterest[] areas = new RegionOfInterest[regions.size()];
+        final int[] firstRow = new int[regions.size() + 1];
+        for (int i = 0; i < areas.length; i++) {
+            RegionOfInterest area = regions.get(i).clamp(width, height);
+            areas[i] = area;
+            int rows = area.isEmpty() ? 0 : (area.height() - phaseY + step - 1) / step;
+            firstRow[i + 1] = firstRow[i] + Math.max(0, rows);
+        }
+
+        int strips = executor.run(firstRow[areas.length], (strip, startRow, endRow) -> {
+            int[] bins = stripBins[strip];
+            Arrays.fill(bins, 0);
+            int region = 0;
+            for (int i = startRow; i < endRow; i++) {
+                while (i >= firstRow[region + 1]) {
+                    region++;
+                }
+                RegionOfInterest area = areas[region];
+                int y = area.top + phaseY + (i - firstRow[region]) * step;
+                sampleRow(luma, rowStride, width, height, y, area.left + phaseX, area.right, step, bins);
+            }
+        });
+
+        int[] lumaHistogram = new int[BINS];
+        int[] gradientHistogram = new int[BINS];
+        for (int k = 0; k < strips; k++) {
+            int[] bins = stripBins[k];
+            for (int b = 0; b < BINS; b++) {
+                lumaHistogram[b] += bins[b];
+                gradientHistogram[b] += bins[BINS + b];
+            }
+        }
+
+        int samples = 0;
+        for (int count : lumaHistogram) {
+            samples += count;
+        }
+        if (samples == 0) {
+            return;
+        }
+
+        int rawLow;
+        int rawHigh;
+        if (method == METHOD_MEDIAN) {
+            int median = percentile(lumaHistogram, samples, 0.5f);
+            rawLow = Math.round(Math.max(0f, (1f - MEDIAN_SIGMA) * median) * CANNY_TO_EDGE_UNITS);
+            rawHigh = Math.round(Math.min(255f, (1f + MEDIAN_SIGMA) * median) * CANNY_TO_EDGE_UNITS);
+        } else {
+            rawHigh = otsu(gradientHistogram, samples);
+            rawLow = rawHigh / 2;
+        }
+        rawHigh = Math.max(1, rawHigh);
+        rawLow = Math.max(1, Math.min(rawLow, rawHigh));
+
+        float alpha = smoothing;
+        if (smoothedHigh < 0) {
+            smoothedLow = rawLow;
+            smoothedHigh = rawHigh;
+        } else {
+            smoothedLow += alpha * (rawLow - smoothedLow);
+            smoothedHigh += alpha * (rawHigh - smoothedHigh);
+        }
+
+        snapshot = new Snapshot(lumaHistogram, gradientHistogram, samples, rawLow, rawHigh,
+                smoothedLow, smoothedHigh, System.nanoTime() - start);
+    }
+
+    private static void sampleRow(ByteBuffer luma, int rowStride, int width, int height,
+                                  int y, int x0, int x1, int step, int[] bins) {
+        int row = y * rowStride;
+        boolean interiorRow = y > 0 && y < height - 1;
+        for (int x = x0; x < x1; x += step) {
+            bins[luma.get(row + x) & 0xFF]++;
+
+            // Same magnitude as EdgeDetector; frame border pixels count as flat
+            int magnitude = 0;
+            if (interiorRow && x > 0 && x < width - 1) {
+                int above = row - rowStride;
+                int below = row + rowStride;
+                int tl = luma.get(above + x - 1) & 0xFF;
+                int tm = luma.get(above + x) & 0xFF;
+                int tr = luma.get(above + x + 1) & 0xFF;
+                int ml = luma.get(row + x - 1) & 0xFF;
+                int mr = luma.get(row + x + 1) & 0xFF;
+                int bl = luma.get(below + x - 1) & 0xFF;
+                int bm = luma.get(below + x) & 0xFF;
+                int br = luma.get(below + x + 1) & 0xFF;
+
+                int gx = tr + 2 * mr + br - tl - 2 * ml - bl;
+                int gy = bl + 2 * bm + br - tl - 2 * tm - tr;
+                magnitude = Math.min(BINS - 1, (Math.abs(gx) + Math.abs(gy)) >> 3);
+            }
+            bins[BINS + magnitude]++;
+        }
+    }
+
+    static int percentile(int[] histogram, int total, float fraction) {
+        long target = (long) Math.ceil(total * (double) fraction);
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= target) {
+                return b;
+            }
+        }
+        return histogram.length - 1;
+    }
+
+    /** Otsu's threshold: the first bin of the upper class that maximises between-class variance. */
+    static int otsu(int[] histogram, int total) {
+        double sumAll = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            sumAll += (double) b * histogram[b];
+        }
+
+        double sumBelow = 0;
+        long countBelow = 0;
+        double bestVariance = -1;
+        int best = 0;
+        for (int b = 0; b < histogram.length - 1; b++) {
+            countBelow += histogram[b];
+            sumBelow += (double) b * histogram[b];
+            long countAbove = total - countBelow;
+            if (countBelow == 0 || countAbove == 0) {
+                continue;
+            }
+            double meanBelow = sumBelow / countBelow;
+            double meanAbove = (sumAll - sumBelow) / countAbove;
+            double diff = meanBelow - meanAbove;
+            double variance = (double) countBelow * countAbove * diff * diff;
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = b + 1;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,111 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs per-frame luma analysis on a background thread so the camera thread only pays for
+ * copying the rows the analysis reads. One frame is processed at a time; frames submitted
+ * while the worker is busy are dropped rather than queued, so results lag by at most one
+ * frame and a slow analysis lowers its own rate instead of the camera's.
+ */
+public class FrameWorker {
+
+    public interface Task {
+        /**
+         * Called on the worker thread. {@code luma} is owned by the worker (row stride =
+         * width) and holds valid pixels one beyond each region, or the whole frame when
+         * {@code regions} is null.
+         */
+        void process(ByteBuffer luma, int width, int height, List<RegionOfInterest> regions);
+    }
+
+    private final Task task;
+    private final ExecutorService thread;
+    private final AtomicBoolean busy = new AtomicBoolean(false);
+
+    private ByteBuffer copy;
+    private volatile long processed = 0;
+    private volatile long dropped = 0;
+
+    public FrameWorker(String name, Task task) {
+        this.task = task;
+        this.thread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread worker = new Thread(runnable, name);
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * Copies the luma rows the task needs and queues it, unless a frame is still being processed.
+     *
+     * @param regions disjoint regions in frame coordinates, or null for the whole frame
+     * @return false if the frame was dropped
+     */
+    public boolean submit(ByteBuffer luma, int rowStride, int width, int height,
+                          List<RegionOfInterest> regions) {
+        if (!busy.compareAndSet(false, true)) {
+            dropped++;
+            return false;
+        }
+        try {
+            // Only written while idle, so one buffer is enough
+            if (copy == null || copy.capacity() < width * height) {
+                copy = ByteBuffer.allocateDirect(width * height);
+            }
+            List<RegionOfInterest> areas = regions == null
+                    ? Collections.singletonList(new RegionOfInterest(0, 0, width, height))
+                    : regions;
+            for (RegionOfInterest region : areas) {
+                // Edge operators read one pixel beyond the region
+                RegionOfInterest area = region.expand(1).clamp(width, height);
+                copyRows(luma, rowStride, area, width);
+            }
+
+            final ByteBuffer frame = copy;
+            thread.execute(() -> {
+                try {
+                    task.process(frame, width, height, regions);
+                } finally {
+                    processed++;
+                    busy.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            busy.set(false);
+            throw e;
+        }
+    }
+
+    /** @return true while a frame is being processed */
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    public long getProcessedCount() {
+        return processed;
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    private void copyRows(ByteBuffer luma, int rowStride, RegionOfInterest area, int width) {
+        ByteBuffer src = luma.duplicate();
+        src.clear();
+        ByteBuffer dst = copy.duplicate();
+        int length = area.width();
+        for (int y = area.top; y < area.bottom; y++) {
+            int from = y * rowStride + area.left;
+            src.limit(from + length).position(from);
+            dst.position(y * width + area.left);
+            dst.put(src);
+        }
+    }
+}
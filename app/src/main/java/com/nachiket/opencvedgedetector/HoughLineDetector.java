@@ -0,0 +1,348 @@
+package com.nachiket.opencvedgedetector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Straight-line detection on an edge map with the standard (rho, theta) Hough transform.
+ * Edge pixels are walked in parallel row strips, each strip voting into its own int
+ * accumulator; the accumulators are summed afterwards and peaks are picked with
+ * non-maximum suppression. All buffers are reused while the frame size stays the same.
+ *
+ * <p>Cost grows with edge pixels times angles, so busy frames are capped: past
+ * {@link #setMaxEdgePixels} only every k-th edge pixel votes and votes are scaled by k.
+ * Lines need not refresh at the camera rate: the default targets a 1080p pass within two
+ * 30 fps frames (lines at 15 fps) on a single core, and runs on a {@link FrameWorker} so
+ * the camera is never held up. With edge detection included, lines refresh at 7.5 fps or
+ * better; more cores shorten both proportionally.
+ */
+public class HoughLineDetector {
+
+    /** A detected line, x * cos(theta) + y * sin(theta) = rho, in frame pixel coordinates. */
+    public static final class Line {
+        public final float rho;
+        public final float theta;
+        public final int votes;
+
+        public Line(float rho, float theta, int votes) {
+            this.rho = rho;
+            this.theta = theta;
+            this.votes = votes;
+        }
+
+        /**
+         * Clips the line to a width x height frame.
+         *
+         * @return {x0, y0, x1, y1}, or null if the line misses the frame
+         */
+        public float[] endpoints(int width, int height) {
+            double cos = Math.cos(theta);
+            double sin = Math.sin(theta);
+            float[] points = new float[4];
+            int found = 0;
+
+            // Intersections with the four frame borders, keeping the first two distinct ones
+            double[][] candidates = new double[4][];
+            if (Math.abs(sin) > 1e-6) {
+                candidates[0] = new double[]{0, rho / sin};
+                candidates[1] = new double[]{width - 1, (rho - (width - 1) * cos) / sin};
+            }
+            if (Math.abs(cos) > 1e-6) {
+                candidates[2] = new double[]{rho / cos, 0};
+                candidates[3] = new double[]{(rho - (height - 1) * sin) / cos, height - 1};
+            }
+            for (double[] c : candidates) {
+                if (c == null || c[0] < -0.5 || c[0] > width - 0.5 || c[1] < -0.5 || c[1] > height - 0.5) {
+                    continue;
+                }
+                if (found == 2 || (found == 1 && Math.abs(points[0] - c[0]) < 0.5
+                        && Math.abs(points[1] - c[1]) < 0.5)) {
+                    continue;
+                }
+                points[found * 2] = (float) c[0];
+                points[found * 2 + 1] = (float) c[1];
+                found++;
+            }
+            return found == 2 ? points : null;
+        }
+
+        @Override
+        public String toString() {
+            return "Line(rho=" + rho + ", theta=" + Math.toDegrees(theta) + "deg, votes=" + votes + ")";
+        }
+    }
+
+    // ~5% of a 1080p frame: 20-55 ms on one core with 180 angles, inside the 66 ms (15 fps) budget
+    public static final int DEFAULT_MAX_EDGE_PIXELS = 100_000;
+
+    public interface Listener {
+        /** Called on the processing thread after every detection pass. */
+        void onLinesDetected(List<Line> lines, int width, int height);
+    }
+
+    private final StripExecutor executor;
+    private final int thetaSteps;
+    private final float[] cosTable;
+    private final float[] sinTable;
+
+    private volatile int voteThreshold;
+    private volatile int maxLines;
+    private volatile int suppressionRho = 8;
+    private volatile int suppressionTheta = 4;
+    private volatile int maxEdgePixels = DEFAULT_MAX_EDGE_PIXELS;
+
+    private int width = 0;
+    private int height = 0;
+    private int rhoOffset;
+    private int rhoBins;
+    private int[][] accumulators;
+    private int[] stripCounts;
+
+    public HoughLineDetector(int thetaSteps, int voteThreshold, int maxLines) {
+        this(StripExecutor.shared(), thetaSteps, voteThreshold, maxLines);
+    }
+
+    public HoughLineDetector(StripExecutor executor, int thetaSteps, int voteThreshold, int maxLines) {
+        if (thetaSteps <= 0) {
+            throw new IllegalArgumentException("thetaSteps must be positive: " + thetaSteps);
+        }
+        this.executor = executor;
+        this.thetaSteps = thetaSteps;
+        this.voteThreshold = voteThreshold;
+        this.maxLines = maxLines;
+
+        cosTable = new float[thetaSteps];
+        sinTable = new float[thetaSteps];
+        for (int t = 0; t < thetaSteps; t++) {
+            double theta = Math.PI * t / thetaSteps;
+            cosTable[t] = (float) Math.cos(theta);
+            sinTable[t] = (float) Math.sin(theta);
+        }
+    }
+
+    public void setVoteThreshold(int voteThreshold) {
+        this.voteThreshold = voteThreshold;
+    }
+
+    public void setMaxLines(int maxLines) {
+        this.maxLines = maxLines;
+    }
+
+    /** Neighbourhood half-size, in rho pixels and theta steps, a peak must dominate. */
+    public void setSuppression(int rho, int theta) {
+        this.suppressionRho = Math.max(0, rho);
+        this.suppressionTheta = Math.max(0, theta);
+    }
+
+    /** Edge pixels above which only a subsample votes; 0 or less lets every edge pixel vote. */
+    public void setMaxEdgePixels(int maxEdgePixels) {
+        this.maxEdgePixels = maxEdgePixels;
+    }
+
+    /**
+     * Finds the strongest lines in an edge map where any non-zero byte is an edge.
+     *
+     * @return lines sorted by descending votes
+     */
+    public List<Line> detect(byte[] edges, int width, int height) {
+        return detect(edges, width, height,
+                Collections.singletonList(new RegionOfInterest(0, 0, width, height)));
+    }
+
+    /**
+     * Like {@link #detect(byte[], int, int)} but only walks edge pixels inside
+     * {@code regions}, which must be disjoint and use frame coordinates.
+     */
+    public List<Line> detect(byte[] edges, int width, int height, List<RegionOfInterest> regions) {
+        ensureCapacity(width, height);
+
+        // Rows of all regions laid end to end, so strips balance across regions
+        final RegionOfInterest[] clipped = new RegionOfInterest[regions.size()];
+        final int[] firstRow = new int[regions.size() + 1];
+        for (int i = 0; i < clipped.length; i++) {
+            clipped[i] = regions.get(i).clamp(width, height);
+            firstRow[i + 1] = firstRow[i] + clipped[i].height();
+        }
+
+        final int rows = firstRow[clipped.length];
+        final int step = voteStep(edges, width, clipped, firstRow);
+
+        int strips = executor.run(rows, (strip, start, end) -> {
+            int[] votes = accumulators[strip];
+            Arrays.fill(votes, 0);
+            int region = 0;
+            int skip = 0;
+            for (int i = start; i < end; i++) {
+                while (i >= firstRow[region + 1]) {
+                    region++;
+                }
+                RegionOfInterest r = clipped[region];
+                skip = vote(votes, edges, width, r.top + i - firstRow[region], r.left, r.right, step, skip);
+            }
+        });
+        if (strips == 0) {
+            Arrays.fill(accumulators[0], 0);
+            strips = 1;
+        }
+        return findPeaks(merge(strips), step);
+    }
+
+    /** Counts edge pixels and returns k such that voting every k-th one stays within budget. */
+    private int voteStep(byte[] edges, int width, RegionOfInterest[] clipped, int[] firstRow) {
+        int budget = maxEdgePixels;
+        if (budget <= 0) {
+            return 1;
+        }
+        int strips = executor.run(firstRow[clipped.length], (strip, start, end) -> {
+            int count = 0;
+            int region = 0;
+            for (int i = start; i < end; i++) {
+                while (i >= firstRow[region + 1]) {
+                    region++;
+                }
+                RegionOfInterest r = clipped[region];
+                int row = (r.top + i - firstRow[region]) * width;
+                for (int x = r.left; x < r.right; x++) {
+                    // Branch-free: noisy maps would mispredict on every other pixel
+                    int e = edges[row + x];
+                    count += (e | -e) >>> 31;
+                }
+            }
+            stripCounts[strip] = count;
+        });
+        long total = 0;
+        for (int k = 0; k < strips; k++) {
+            total += stripCounts[k];
+        }
+        return (int) Math.max(1, (total + budget - 1) / budget);
+    }
+
+    /**
+     * Votes for every {@code step}-th edge pixel of one row span.
+     *
+     * @param skip edge pixels still to skip, carried over from the previous span
+     * @return edge pixels still to skip after this span
+     */
+    private int vote(int[] votes, byte[] edges, int width, int y, int x0, int x1, int step, int skip) {
+        final int steps = thetaSteps;
+        final int bins = rhoBins;
+        final float offset = rhoOffset;
+        final float[] cos = cosTable;
+        final float[] sin = sinTable;
+
+        int row = y * width;
+        for (int x = x0; x < x1; x++) {
+            if (edges[row + x] == 0) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            skip = step - 1;
+            // One accumulator row per angle: along a scanline rho drifts slowly, so
+            // each row's hot cache line is reused by neighbouring edge pixels.
+            // The offset keeps the value positive, so the cast rounds to nearest.
+            int cell = 0;
+            for (int t = 0; t < steps; t++) {
+                votes[cell + (int) (x * cos[t] + y * sin[t] + offset + 0.5f)]++;
+                cell += bins;
+            }
+        }
+        return skip;
+    }
+
+    /** Sums the first {@code sources} per-strip accumulators into the first one. */
+    private int[] merge(int sources) {
+        final int[][] acc = accumulators;
+        final int[] merged = acc[0];
+        executor.run(merged.length, (strip, start, end) -> {
+            for (int k = 1; k < sources; k++) {
+                int[] votes = acc[k];
+                for (int i = start; i < end; i++) {
+                    merged[i] += votes[i];
+                }
+            }
+        });
+        return merged;
+    }
+
+    /** Summed votes from the last {@link #detect} call, indexed [theta * rhoBins + rho + rhoOffset]. */
+    int[] getAccumulator() {
+        return accumulators == null ? null : accumulators[0];
+    }
+
+    /** @param step edge subsampling factor; thresholds and reported votes are scaled by it */
+    private List<Line> findPeaks(int[] votes, int step) {
+        int threshold = Math.max(1, (voteThreshold + step - 1) / step);
+        int limit = maxLines;
+        int nmsRho = suppressionRho;
+        int nmsTheta = suppressionTheta;
+
+        List<Line> lines = new ArrayList<>();
+        for (int t = 0; t < thetaSteps; t++) {
+            int row = t * rhoBins;
+            for (int r = 0; r < rhoBins; r++) {
+                int v = votes[row + r];
+                if (v >= threshold && isLocalMaximum(votes, t, r, v, nmsRho, nmsTheta)) {
+                    lines.add(new Line(r - rhoOffset, (float) (Math.PI * t / thetaSteps), v * step));
+                }
+            }
+        }
+
+        Collections.sort(lines, (a, b) -> Integer.compare(b.votes, a.votes));
+        if (limit > 0 && lines.size() > limit) {
+            return new ArrayList<>(lines.subList(0, limit));
+        }
+        return lines;
+    }
+
+    private boolean isLocalMaximum(int[] votes, int t, int r, int v, int nmsRho, int nmsTheta) {
+        int index = t * rhoBins + r;
+        for (int dt = -nmsTheta; dt <= nmsTheta; dt++) {
+            int tt = t + dt;
+            int rr0 = r;
+            // theta wraps at pi with rho negated
+            if (tt < 0) {
+                tt += thetaSteps;
+                rr0 = 2 * rhoOffset - r;
+            } else if (tt >= thetaSteps) {
+                tt -= thetaSteps;
+                rr0 = 2 * rhoOffset - r;
+            }
+            for (int dr = -nmsRho; dr <= nmsRho; dr++) {
+                int rr = rr0 + dr;
+                if (rr < 0 || rr >= rhoBins) {
+                    continue;
+                }
+                int neighbour = tt * rhoBins + rr;
+                if (neighbour == index) {
+                    continue;
+                }
+                int other = votes[neighbour];
+                // Ties go to the lower index so a plateau yields exactly one peak
+                if (other > v || (other == v && neighbour < index)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Unsupported frame size: " + width + "x" + height);
+        }
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        rhoOffset = (int) Math.ceil(Math.hypot(width, height));
+        rhoBins = 2 * rhoOffset + 1;
+        accumulators = new int[executor.getParallelism()][thetaSteps * rhoBins];
+        stripCounts = new int[executor.getParallelism()];
+    }
+}
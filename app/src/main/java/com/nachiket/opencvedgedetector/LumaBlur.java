@@ -0,0 +1,222 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Box and approximate Gaussian blur of the luma plane using a summed-area table, so
+ * every output pixel costs four table reads regardless of radius. The table, the
+ * intermediate passes and the direct output buffer are reused across frames.
+ */
+public class LumaBlur {
+    // Largest frame whose full sum still fits in an int
+    private static final int MAX_PIXELS = Integer.MAX_VALUE / 255;
+
+    private final StripExecutor executor;
+
+    private int width = 0;
+    private int height = 0;
+    private int[] table;
+    private byte[] pass;
+    private byte[] passAlt;
+    private ByteBuffer output;
+
+    public LumaBlur() {
+        this(StripExecutor.shared());
+    }
+
+    public LumaBlur(StripExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Box blur with a (2 * radius + 1)^2 window, clamped at the frame borders.
+     *
+     * @return direct buffer of width * height bytes (row stride = width), owned by this instance
+     */
+    public ByteBuffer boxBlur(ByteBuffer luma, int rowStride, int width, int height, int radius) {
+        RegionOfInterest frame = new RegionOfInterest(0, 0, width, height);
+        ensureOutput(width, height);
+        boxBlur(luma, rowStride, frame, frame, output, width, radius);
+        return publish(width * height);
+    }
+
+    /**
+     * Gaussian blur approximated by three stacked box passes of matching variance.
+     *
+     * @return direct buffer of width * height bytes (row stride = width), owned by this instance
+     */
+    public ByteBuffer gaussianBlur(ByteBuffer luma, int rowStride, int width, int height, double sigma) {
+        RegionOfInterest frame = new RegionOfInterest(0, 0, width, height);
+        ensureOutput(width, height);
+        gaussianBlur(luma, rowStride, frame, frame, output, width, sigma);
+        return publish(width * height);
+    }
+
+    /**
+     * Box blur of one region of a frame. Only {@code window} is read and only
+     * {@code target} is written, both in frame coordinates; {@code target} pixels match a
+     * full-frame blur when {@code window} extends {@link #boxHalo} beyond it (or to the frame edge).
+     */
+    public void boxBlur(ByteBuffer luma, int rowStride, RegionOfInterest window, RegionOfInterest target,
+                        ByteBuffer dst, int dstStride, int radius) {
+        ensureCapacity(window.width(), window.height());
+        buildTable(luma, window.top * rowStride + window.left, rowStride);
+        boxPass(Math.max(0, radius), pass);
+        copyOut(pass, window, target, dst, dstStride);
+    }
+
+    /** Region variant of {@link #gaussianBlur(ByteBuffer, int, int, int, double)}, see {@link #boxBlur}. */
+    public void gaussianBlur(ByteBuffer luma, int rowStride, RegionOfInterest window, RegionOfInterest target,
+                             ByteBuffer dst, int dstStride, double sigma) {
+        ensureCapacity(window.width(), window.height());
+        int[] radii = gaussianBoxRadii(sigma);
+
+        buildTable(luma, window.top * rowStride + window.left, rowStride);
+        boxPass(radii[0], pass);
+        buildTable(ByteBuffer.wrap(pass), 0, width);
+        boxPass(radii[1], passAlt);
+        buildTable(ByteBuffer.wrap(passAlt), 0, width);
+        boxPass(radii[2], pass);
+        copyOut(pass, window, target, dst, dstStride);
+    }
+
+    /** Pixels a region must be widened by so a box blur of {@code radius} is exact inside it. */
+    public static int boxHalo(int radius) {
+        return Math.max(0, radius);
+    }
+
+    /** Pixels a region must be widened by so a Gaussian blur of {@code sigma} is exact inside it. */
+    public static int gaussianHalo(double sigma) {
+        int halo = 0;
+        for (int radius : gaussianBoxRadii(sigma)) {
+            halo += radius;
+        }
+        return halo;
+    }
+
+    /** Radii of the three box filters whose cascade best matches a Gaussian of {@code sigma}. */
+    static int[] gaussianBoxRadii(double sigma) {
+        int[] radii = new int[3];
+        if (sigma <= 0) {
+            return radii;
+        }
+
+        int n = radii.length;
+        double idealWidth = Math.sqrt(12 * sigma * sigma / n + 1);
+        int lower = (int) Math.floor(idealWidth);
+        if (lower % 2 == 0) {
+            lower--;
+        }
+        int upper = lower + 2;
+        double idealCount = (12 * sigma * sigma - n * lower * lower - 4 * n * lower - 3 * n)
+                / (-4.0 * lower - 4);
+        long lowerCount = Math.round(idealCount);
+
+        for (int i = 0; i < n; i++) {
+            radii[i] = ((i < lowerCount ? lower : upper) - 1) / 2;
+        }
+        return radii;
+    }
+
+    private void ensureCapacity(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > MAX_PIXELS) {
+            throw new IllegalArgumentException("Unsupported frame size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+
+        // Grow only, so alternating region sizes don't reallocate every frame
+        int tableSize = (width + 1) * (height + 1);
+        if (table == null || table.length < tableSize) {
+            table = new int[tableSize];
+        }
+        if (pass == null || pass.length < width * height) {
+            pass = new byte[width * height];
+            passAlt = new byte[width * height];
+        }
+    }
+
+    private void ensureOutput(int width, int height) {
+        if (output == null || output.capacity() < width * height) {
+            output = ByteBuffer.allocateDirect(width * height);
+        }
+        // Drop the limit a smaller previous frame published
+        output.clear();
+    }
+
+    private void buildTable(ByteBuffer src, int base, int rowStride) {
+        final int w = width;
+        final int stride = w + 1;
+        final int[] t = table;
+
+        // Row prefix sums in row strips. Row 0 and column 0 are zeroed explicitly since
+        // the table may be left over from a region of a different width.
+        Arrays.fill(t, 0, stride, 0);
+        executor.run(height, (strip, start, end) -> {
+            for (int y = start; y < end; y++) {
+                int in = base + y * rowStride;
+                int out = (y + 1) * stride + 1;
+                t[out - 1] = 0;
+                int sum = 0;
+                for (int x = 0; x < w; x++) {
+                    sum += src.get(in + x) & 0xFF;
+                    t[out + x] = sum;
+                }
+            }
+        });
+
+        // Accumulate down each column in column strips
+        final int h = height;
+        executor.run(w, (strip, start, end) -> {
+            for (int y = 2; y <= h; y++) {
+                int row = y * stride + 1;
+                int prev = row - stride;
+                for (int x = start; x < end; x++) {
+                    t[row + x] += t[prev + x];
+                }
+            }
+        });
+    }
+
+    private void boxPass(int radius, byte[] dst) {
+        final int w = width;
+        final int h = height;
+        final int stride = w + 1;
+        final int[] t = table;
+
+        executor.run(h, (strip, start, end) -> {
+            for (int y = start; y < end; y++) {
+                int y0 = Math.max(0, y - radius);
+                int y1 = Math.min(h - 1, y + radius) + 1;
+                int top = y0 * stride;
+                int bottom = y1 * stride;
+                int rows = y1 - y0;
+                int out = y * w;
+                for (int x = 0; x < w; x++) {
+                    int x0 = Math.max(0, x - radius);
+                    int x1 = Math.min(w - 1, x + radius) + 1;
+                    int sum = t[bottom + x1] - t[top + x1] - t[bottom + x0] + t[top + x0];
+                    int area = (x1 - x0) * rows;
+                    dst[out + x] = (byte) ((sum + (area >> 1)) / area);
+                }
+            }
+        });
+    }
+
+    private void copyOut(byte[] src, RegionOfInterest window, RegionOfInterest target,
+                         ByteBuffer dst, int dstStride) {
+        int rowLength = target.width();
+        for (int y = target.top; y < target.bottom; y++) {
+            dst.position(y * dstStride + target.left);
+            dst.put(src, (y - window.top) * width + target.left - window.left, rowLength);
+        }
+        dst.position(0);
+    }
+
+    private ByteBuffer publish(int length) {
+        output.limit(length);
+        output.position(0);
+        return output;
+    }
+}
@@ -79,6 +79,7 @@ public class MainActivity extends AppCompatActivity {
             MyRenderer renderer = binding.glSurface.getRenderer();
             if (renderer != null) {
                 cameraManager.setFrameCallback(renderer::processFrame);
+                cameraManager.setPlaneCallback(renderer::processPlanes);
                 cameraManager.startCamera();
                 Log.d(TAG, "Camera initialized successfully");
             } else {
@@ -11,6 +11,10 @@ import android.opengl.GLSurfaceView;
 import android.util.Log;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.egl.EGLConfig;
@@ -38,12 +42,86 @@ public class MyRenderer implements GLSurfaceView.Renderer {
     // Current processing mode
     private volatile int currentMode = MODE_ORIGINAL;
 
+    // Luma pre-filter constants, applied ahead of grayscale and edge detection
+    public static final int FILTER_NONE = 0;
+    public static final int FILTER_BOX = 1;
+    public static final int FILTER_GAUSSIAN = 2;
+
+    // Current pre-filter; size is the radius for FILTER_BOX and sigma for FILTER_GAUSSIAN
+    private volatile int preFilter = FILTER_NONE;
+    private volatile float preFilterSize = 0f;
+    private final LumaBlur lumaBlur = new LumaBlur();
+
+    // Hough line detection on the CPU edge map
+    private static final int LINE_EDGE_THRESHOLD = 40;
+    private final EdgeDetector edgeDetector = new EdgeDetector();
+    private final HoughLineDetector lineDetector = new HoughLineDetector(180, 150, 16);
+    private volatile boolean lineDetectionEnabled = false;
+    // Automatic edge thresholds from per-frame histograms, replacing LINE_EDGE_THRESHOLD
+    // with a low/high pair that the edge detector applies with hysteresis
+    private final EdgeThresholdEstimator thresholdEstimator = new EdgeThresholdEstimator();
+    private volatile boolean autoThresholdEnabled = false;
+    private volatile HoughLineDetector.Listener lineListener;
+    // Segments in NDC published by the camera thread, consumed on the GL thread
+    private final AtomicReference<float[]> pendingOverlay = new AtomicReference<>();
+    // GL thread only: whether the native overlay currently holds segments
+    private boolean overlayVisible = false;
+    // Receives every CPU edge map while set, for streaming to network clients
+    private volatile EdgeStreamServer edgeStreamServer;
+    // Edge, threshold and line work runs here, off the camera thread, dropping frames while busy
+    private final FrameWorker edgeWorker = new FrameWorker("EdgeWorker", this::processEdges);
+
+    // Region-of-interest processing: only ROI pixels (plus filter halo) are processed,
+    // the rest of the frame is left blank or shown from a periodic low-res pass
+    public static final int ROI_BACKGROUND_BLANK = 0;
+    public static final int ROI_BACKGROUND_LOW_RES = 1;
+    private static final int LOW_RES_FACTOR = 8;
+    private static final int LOW_RES_INTERVAL = 15;
+
+    // Published by the UI thread as an immutable, disjoint list; null processes the whole frame
+    private volatile List<RegionOfInterest> regionsOfInterest;
+    private volatile int roiBackground = ROI_BACKGROUND_BLANK;
+
+    // Camera-thread ROI state, rebuilt when the regions or frame size change
+    private List<RegionOfInterest> roiSource;
+    private List<RegionOfInterest> roiCores;
+    private List<RegionOfInterest> roiDisplays;
+    private int roiWidth = 0;
+    private int roiHeight = 0;
+    private int roiLastBackground = -1;
+    private int roiFrameCount = 0;
+    private ByteBuffer roiLuma;
+
     // Texture dimensions for camera frames
     private int cameraTextureWidth = 0;
     private int cameraTextureHeight = 0;
     private volatile boolean hasValidTexture = false;
     private volatile boolean isInitialized = false;
 
+    // Converted frame handed from the camera thread to the GL thread, which owns the
+    // texture. The camera thread only rewrites the native output while nothing is
+    // pending, so the GL thread can upload straight from it without a copy.
+    private static final class TextureUpdate {
+        final ByteBuffer rgb;
+        final int width;
+        final int height;
+        // Dirty regions, or null to upload the whole frame
+        final List<RegionOfInterest> regions;
+
+        TextureUpdate(ByteBuffer rgb, int width, int height, List<RegionOfInterest> regions) {
+            this.rgb = rgb;
+            this.width = width;
+            this.height = height;
+            this.regions = regions;
+        }
+    }
+    private final AtomicReference<TextureUpdate> pendingTexture = new AtomicReference<>();
+
+    // Direct view over the native RGB output, refreshed when the frame size changes
+    private ByteBuffer nativeOutput;
+    private int nativeOutputWidth = 0;
+    private int nativeOutputHeight = 0;
+
     public MyRenderer(Context ctx) {
         this.context = ctx;
         Log.d(TAG, "MyRenderer created");
@@ -54,13 +132,284 @@ public class MyRenderer implements GLSurfaceView.Renderer {
         this.currentMode = mode;
     }
 
+    public void setPreFilter(int filter, float size) {
+        Log.d(TAG, "Setting pre-filter to: " + filter + " (size " + size + ")");
+        this.preFilterSize = size;
+        this.preFilter = filter;
+    }
+
+    public void setLineDetectionEnabled(boolean enabled) {
+        Log.d(TAG, "Line detection " + (enabled ? "enabled" : "disabled"));
+        this.lineDetectionEnabled = enabled;
+    }
+
+    /** The listener is called on the edge worker thread. */
+    public void setLineListener(HoughLineDetector.Listener listener) {
+        this.lineListener = listener;
+    }
+
+    public HoughLineDetector getLineDetector() {
+        return lineDetector;
+    }
+
+    /** Publishes the CPU edge map of every frame to {@code server}; null stops streaming. */
+    public void setEdgeStreamServer(EdgeStreamServer server) {
+        Log.d(TAG, "Edge streaming " + (server != null ? "to port " + server.getPort() : "disabled"));
+        this.edgeStreamServer = server;
+    }
+
+    public void setAutoThresholdEnabled(boolean enabled) {
+        Log.d(TAG, "Automatic edge thresholds " + (enabled ? "enabled" : "disabled"));
+        this.autoThresholdEnabled = enabled;
+    }
+
+    /** For configuring the estimator and monitoring its thresholds and histograms. */
+    public EdgeThresholdEstimator getThresholdEstimator() {
+        return thresholdEstimator;
+    }
+
+    /** Restricts processing to {@code regions} in frame pixels; null or empty processes everything. */
+    public void setRegionsOfInterest(List<RegionOfInterest> regions) {
+        Log.d(TAG, "Setting regions of interest: " + regions);
+        this.regionsOfInterest = regions == null || regions.isEmpty()
+                ? null
+                : RegionOfInterest.normalize(regions);
+    }
+
+    public void setRoiBackground(int background) {
+        Log.d(TAG, "Setting ROI background to: " + background);
+        this.roiBackground = background;
+    }
+
     public void processFrame(byte[] frameData, int width, int height) {
-        if (frameData != null && width > 0 && height > 0 && isInitialized) {
+        if (frameData != null && width > 0 && height > 0 && isInitialized
+                && pendingTexture.get() == null) {
             Log.d(TAG, "Processing frame: " + width + "x" + height + ", data length: " + frameData.length);
             convertYuvToRgbAndUpdateTexture(frameData, width, height);
         }
     }
 
+    public void processPlanes(ByteBuffer yPlane, int yRowStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane,
+                              int uvRowStride, int uvPixelStride,
+                              int width, int height) {
+        if (width <= 0 || height <= 0 || !isInitialized) {
+            return;
+        }
+        if (pendingTexture.get() != null) {
+            // The GL thread hasn't uploaded the previous frame and reads the native
+            // output directly, so it must not change yet; drop this frame
+            return;
+        }
+        try {
+            List<RegionOfInterest> regions = regionsOfInterest;
+            if (regions != null) {
+                processRegions(regions, yPlane, yRowStride, uPlane, vPlane,
+                        uvRowStride, uvPixelStride, width, height);
+                return;
+            }
+            roiSource = null;
+
+            int filter = preFilter;
+            boolean edges = needsEdges();
+            boolean filterDisplay = filter != FILTER_NONE && currentMode != MODE_ORIGINAL;
+            ByteBuffer luma = yPlane;
+            int lumaStride = yRowStride;
+            if (filter != FILTER_NONE && (filterDisplay || edges)) {
+                // Denoise luma before the shader's grayscale and Sobel see it. The CPU edge
+                // path always takes the filtered plane, so lines and streamed maps don't
+                // change with the display mode; only the original view skips it.
+                float size = preFilterSize;
+                luma = filter == FILTER_GAUSSIAN
+                        ? lumaBlur.gaussianBlur(yPlane, yRowStride, width, height, size)
+                        : lumaBlur.boxBlur(yPlane, yRowStride, width, height, Math.round(size));
+                lumaStride = width;
+            }
+
+            if (edges) {
+                edgeWorker.submit(luma, lumaStride, width, height, null);
+            }
+            if (!filterDisplay) {
+                luma = yPlane;
+                lumaStride = yRowStride;
+            }
+
+            // Planes are converted in place by native code, no Java-side copy
+            if (!NativeRenderer.nativeProcessYuvPlanes(luma, lumaStride, uPlane, vPlane,
+                    uvRowStride, uvPixelStride, width, height)) {
+                Log.e(TAG, "Native plane processing failed for " + width + "x" + height);
+                return;
+            }
+
+            if (!mapNativeOutput(width, height)) {
+                return;
+            }
+
+            pendingTexture.set(new TextureUpdate(nativeOutput.duplicate(), width, height, null));
+        } catch (Exception e) {
+            Log.e(TAG, "Error processing camera planes", e);
+        }
+    }
+
+    private void processRegions(List<RegionOfInterest> regions, ByteBuffer yPlane, int yRowStride,
+                                ByteBuffer uPlane, ByteBuffer vPlane,
+                                int uvRowStride, int uvPixelStride,
+                                int width, int height) {
+        boolean layoutChanged = regions != roiSource || width != roiWidth || height != roiHeight;
+        if (layoutChanged) {
+            // Cores are what the caller asked for; displays add the 1px Sobel halo and are
+            // what gets converted and uploaded. Halos of neighbouring cores can overlap, so
+            // displays are normalized too and no pixel is blurred or uploaded twice.
+            List<RegionOfInterest> cores = new ArrayList<>();
+            for (RegionOfInterest region : regions) {
+                cores.add(region.clamp(width, height).alignToChroma(width, height));
+            }
+            roiCores = RegionOfInterest.normalize(cores);
+            List<RegionOfInterest> displays = new ArrayList<>();
+            for (RegionOfInterest core : roiCores) {
+                displays.add(core.expand(1).clamp(width, height).alignToChroma(width, height));
+            }
+            roiDisplays = RegionOfInterest.normalize(displays);
+            roiSource = regions;
+            roiWidth = width;
+            roiHeight = height;
+            roiFrameCount = 0;
+            Log.d(TAG, "ROI layout: " + roiCores);
+        }
+
+        int background = roiBackground;
+        boolean refreshBackground = layoutChanged || background != roiLastBackground
+                || (background == ROI_BACKGROUND_LOW_RES && roiFrameCount % LOW_RES_INTERVAL == 0);
+        roiLastBackground = background;
+        roiFrameCount++;
+
+        ByteBuffer luma = yPlane;
+        int lumaStride = yRowStride;
+        int filter = preFilter;
+        boolean edges = needsEdges();
+        boolean filterDisplay = filter != FILTER_NONE && currentMode != MODE_ORIGINAL;
+        if (filter != FILTER_NONE && (filterDisplay || edges)) {
+            // Blur each display region from a window widened by the filter halo, into a
+            // frame-sized luma plane that is only valid inside the displays. As for full
+            // frames, edges always see the filtered plane whatever the display mode.
+            if (roiLuma == null || roiLuma.capacity() < width * height) {
+                roiLuma = ByteBuffer.allocateDirect(width * height);
+            }
+            float size = preFilterSize;
+            int halo = filter == FILTER_GAUSSIAN ? LumaBlur.gaussianHalo(size) : LumaBlur.boxHalo(Math.round(size));
+            for (RegionOfInterest display : roiDisplays) {
+                RegionOfInterest window = display.expand(halo).clamp(width, height);
+                if (filter == FILTER_GAUSSIAN) {
+                    lumaBlur.gaussianBlur(yPlane, yRowStride, window, display, roiLuma, width, size);
+                } else {
+                    lumaBlur.boxBlur(yPlane, yRowStride, window, display, roiLuma, width, Math.round(size));
+                }
+            }
+            luma = roiLuma;
+            lumaStride = width;
+        }
+
+        if (edges) {
+            edgeWorker.submit(luma, lumaStride, width, height, roiCores);
+        }
+        if (!filterDisplay) {
+            luma = yPlane;
+            lumaStride = yRowStride;
+        }
+
+        if (refreshBackground) {
+            if (background == ROI_BACKGROUND_LOW_RES) {
+                NativeRenderer.nativeProcessYuvLowRes(yPlane, yRowStride, uPlane, vPlane,
+                        uvRowStride, uvPixelStride, width, height, LOW_RES_FACTOR);
+            } else {
+                NativeRenderer.nativeClearOutput(width, height);
+            }
+        }
+        for (RegionOfInterest display : roiDisplays) {
+            if (!NativeRenderer.nativeProcessYuvRegion(luma, lumaStride, uPlane, vPlane,
+                    uvRowStride, uvPixelStride, width, height,
+                    display.left, display.top, display.right, display.bottom)) {
+                Log.e(TAG, "Native region processing failed for " + display);
+                return;
+            }
+        }
+
+        if (!mapNativeOutput(width, height)) {
+            return;
+        }
+        pendingTexture.set(new TextureUpdate(nativeOutput.duplicate(), width, height,
+                refreshBackground ? null : roiDisplays));
+    }
+
+    private boolean mapNativeOutput(int width, int height) {
+        if (nativeOutput == null || nativeOutputWidth != width || nativeOutputHeight != height) {
+            nativeOutput = NativeRenderer.nativeGetOutputBuffer();
+            nativeOutputWidth = width;
+            nativeOutputHeight = height;
+            Log.d(TAG, "Native output buffer mapped: " + width + "x" + height);
+        }
+        return nativeOutput != null;
+    }
+
+    /** @return true if lines are drawn or a running server streams the edge map */
+    private boolean needsEdges() {
+        EdgeStreamServer server = edgeStreamServer;
+        return lineDetectionEnabled || (server != null && server.isRunning());
+    }
+
+    /** Runs on the edge worker thread with a private copy of the luma plane. */
+    private void processEdges(ByteBuffer luma, int width, int height, List<RegionOfInterest> regions) {
+        int low = LINE_EDGE_THRESHOLD;
+        int high = LINE_EDGE_THRESHOLD;
+        if (autoThresholdEnabled) {
+            if (regions == null) {
+                thresholdEstimator.update(luma, width, width, height);
+            } else {
+                thresholdEstimator.update(luma, width, width, height, regions);
+            }
+            low = thresholdEstimator.getLowThreshold();
+            high = thresholdEstimator.getHighThreshold();
+        }
+
+        byte[] edges = regions == null
+                ? edgeDetector.detect(luma, width, width, height, low, high)
+                : edgeDetector.detect(luma, width, width, height, low, high, regions);
+
+        if (lineDetectionEnabled) {
+            detectLines(edges, width, height, regions);
+        }
+        EdgeStreamServer server = edgeStreamServer;
+        if (server != null) {
+            server.publish(edges, width, height);
+        }
+    }
+
+    private void detectLines(byte[] edges, int width, int height, List<RegionOfInterest> regions) {
+        List<HoughLineDetector.Line> lines = regions == null
+                ? lineDetector.detect(edges, width, height)
+                : lineDetector.detect(edges, width, height, regions);
+
+        // Frame row 0 is drawn at the top of the screen
+        float[] segments = new float[lines.size() * 4];
+        int count = 0;
+        for (HoughLineDetector.Line line : lines) {
+            float[] p = line.endpoints(width, height);
+            if (p == null) {
+                continue;
+            }
+            segments[count++] = 2f * p[0] / width - 1f;
+            segments[count++] = 1f - 2f * p[1] / height;
+            segments[count++] = 2f * p[2] / width - 1f;
+            segments[count++] = 1f - 2f * p[3] / height;
+        }
+        pendingOverlay.set(Arrays.copyOf(segments, count));
+
+        HoughLineDetector.Listener listener = lineListener;
+        if (listener != null) {
+            listener.onLinesDetected(lines, width, height);
+        }
+    }
+
     private void convertYuvToRgbAndUpdateTexture(byte[] yuvData, int width, int height) {
         try {
             int ySize = width * height;
@@ -73,47 +422,54 @@ public class MyRenderer implements GLSurfaceView.Renderer {
 
             byte[] rgbData = new byte[width * height * 3];
 
-            // YUV to RGB conversion
-            for (int row = 0; row < height; row++) {
-                for (int col = 0; col < width; col++) {
-                    int yIndex = row * width + col;
-                    int uvRow = row / 2;
-                    int uvCol = col / 2;
-                    int uIndex = ySize + uvRow * (width / 2) + uvCol;
-                    int vIndex = ySize + uvSize + uvRow * (width / 2) + uvCol;
-
-                    if (uIndex >= yuvData.length || vIndex >= yuvData.length) {
-                        continue;
-                    }
-
-                    int y = (yuvData[yIndex] & 0xFF) - 16;
-                    int u = (yuvData[uIndex] & 0xFF) - 128;
-                    int v = (yuvData[vIndex] & 0xFF) - 128;
-
-                    int r = (int) (1.164 * y + 1.596 * v);
-                    int g = (int) (1.164 * y - 0.392 * u - 0.813 * v);
-                    int b = (int) (1.164 * y + 2.017 * u);
-
-                    r = Math.max(0, Math.min(255, r));
-                    g = Math.max(0, Math.min(255, g));
-                    b = Math.max(0, Math.min(255, b));
-
-                    int rgbIndex = yIndex * 3;
-                    if (rgbIndex + 2 < rgbData.length) {
-                        rgbData[rgbIndex] = (byte) r;
-                        rgbData[rgbIndex + 1] = (byte) g;
-                        rgbData[rgbIndex + 2] = (byte) b;
-                    }
-                }
-            }
+            // Packed I420 layout: Y, then quarter-size U and V planes
+            ByteBuffer yuv = ByteBuffer.wrap(yuvData);
+            ByteBuffer yPlane = slice(yuv, 0, ySize);
+            ByteBuffer uPlane = slice(yuv, ySize, uvSize);
+            ByteBuffer vPlane = slice(yuv, ySize + uvSize, uvSize);
+            YuvConverter.yuvToRgb(yPlane, width, uPlane, vPlane, width / 2, 1,
+                    width, height, rgbData);
 
-            updateOpenGLTexture(rgbData, width, height);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(rgbData.length);
+            buffer.put(rgbData);
+            buffer.position(0);
+
+            pendingTexture.set(new TextureUpdate(buffer, width, height, null));
         } catch (Exception e) {
             Log.e(TAG, "Error in YUV to RGB conversion", e);
         }
     }
 
-    private void updateOpenGLTexture(byte[] rgbData, int width, int height) {
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    /** GL thread: uploads the frame the camera thread left, then lets it convert the next one. */
+    private void uploadPendingTexture() {
+        TextureUpdate update = pendingTexture.get();
+        if (update == null) {
+            return;
+        }
+        try {
+            // Region uploads need a texture of this size that already holds the rest of the frame
+            if (update.regions == null || !hasValidTexture
+                    || cameraTextureWidth != update.width || cameraTextureHeight != update.height) {
+                update.rgb.position(0);
+                updateOpenGLTexture(update.rgb, update.width, update.height);
+            } else {
+                for (RegionOfInterest region : update.regions) {
+                    updateOpenGLTextureRegion(update.rgb, update.width, region);
+                }
+            }
+        } finally {
+            pendingTexture.set(null);
+        }
+    }
+
+    private void updateOpenGLTexture(ByteBuffer buffer, int width, int height) {
         try {
             if (textureId == 0) {
                 int[] textures = new int[1];
@@ -126,16 +482,10 @@ public class MyRenderer implements GLSurfaceView.Renderer {
                 GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_MAG_FILTER, GLES30.GL_LINEAR);
                 GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_S, GLES30.GL_CLAMP_TO_EDGE);
                 GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_T, GLES30.GL_CLAMP_TO_EDGE);
-
-                nativeSetTexture(textureId, width, height);
             }
 
             GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, textureId);
 
-            ByteBuffer buffer = ByteBuffer.allocateDirect(rgbData.length);
-            buffer.put(rgbData);
-            buffer.position(0);
-
             if (cameraTextureWidth == width && cameraTextureHeight == height && hasValidTexture) {
                 GLES30.glTexSubImage2D(GLES30.GL_TEXTURE_2D, 0, 0, 0, width, height,
                         GLES30.GL_RGB, GLES30.GL_UNSIGNED_BYTE, buffer);
@@ -145,6 +495,7 @@ public class MyRenderer implements GLSurfaceView.Renderer {
                 cameraTextureWidth = width;
                 cameraTextureHeight = height;
                 hasValidTexture = true;
+                nativeSetTexture(textureId, width, height);
                 Log.d(TAG, "Camera texture allocated: " + width + "x" + height);
             }
 
@@ -159,6 +510,31 @@ public class MyRenderer implements GLSurfaceView.Renderer {
         }
     }
 
+    private void updateOpenGLTextureRegion(ByteBuffer rgb, int width, RegionOfInterest region) {
+        try {
+            GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, textureId);
+
+            // Upload just the region's rows and columns straight out of the frame-sized buffer
+            GLES30.glPixelStorei(GLES30.GL_UNPACK_ALIGNMENT, 1);
+            GLES30.glPixelStorei(GLES30.GL_UNPACK_ROW_LENGTH, width);
+            rgb.position((region.top * width + region.left) * 3);
+            GLES30.glTexSubImage2D(GLES30.GL_TEXTURE_2D, 0, region.left, region.top,
+                    region.width(), region.height(), GLES30.GL_RGB, GLES30.GL_UNSIGNED_BYTE, rgb);
+            rgb.position(0);
+            GLES30.glPixelStorei(GLES30.GL_UNPACK_ROW_LENGTH, 0);
+            GLES30.glPixelStorei(GLES30.GL_UNPACK_ALIGNMENT, 4);
+
+            GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, 0);
+
+            int error = GLES30.glGetError();
+            if (error != GLES30.GL_NO_ERROR) {
+                Log.e(TAG, "OpenGL error in updateTextureRegion: " + error);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating OpenGL texture region", e);
+        }
+    }
+
     private Bitmap createTestBitmap() {
         // Create a simple test pattern bitmap
         int width = 256;
@@ -197,6 +573,10 @@ public class MyRenderer implements GLSurfaceView.Renderer {
         Log.d(TAG, "onSurfaceCreated");
         try {
             nativeInit();
+            // A new context has no camera texture yet; the next upload reallocates it
+            hasValidTexture = false;
+            cameraTextureWidth = 0;
+            cameraTextureHeight = 0;
             isInitialized = true;
 
             // Create and load a test bitmap
@@ -229,6 +609,17 @@ public class MyRenderer implements GLSurfaceView.Renderer {
     @Override
     public void onDrawFrame(GL10 gl) {
         try {
+            float[] overlay = pendingOverlay.getAndSet(null);
+            if (!lineDetectionEnabled) {
+                // A detection still running when lines were disabled may publish late, so
+                // the GL thread decides: drop anything pending and clear what's shown
+                overlay = overlayVisible ? new float[0] : null;
+            }
+            if (overlay != null) {
+                nativeSetOverlayLines(overlay);
+                overlayVisible = overlay.length > 0;
+            }
+            uploadPendingTexture();
             nativeDrawFrame(currentMode);
         } catch (Exception e) {
             Log.e(TAG, "Error in onDrawFrame", e);
@@ -279,4 +670,5 @@ public class MyRenderer implements GLSurfaceView.Renderer {
     private native void nativeSetMode(int mode);
     private native void nativeProcess();
     private native void nativeDrawFrame(int mode);
+    private native void nativeSetOverlayLines(float[] segments);
 }
\ No newline at end of file
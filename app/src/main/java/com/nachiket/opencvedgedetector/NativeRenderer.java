@@ -1,11 +1,64 @@
 package com.nachiket.opencvedgedetector;
 
+import java.nio.ByteBuffer;
+
 public class NativeRenderer {
-    static { System.loadLibrary("opencvedgedetector"); }
+    // Set by the host (desktop JVM) test run to the Linux build of the library
+    static final String LIBRARY_PATH_PROPERTY = "opencvedgedetector.library.path";
+
+    static {
+        String libraryPath = System.getProperty(LIBRARY_PATH_PROPERTY);
+        if (libraryPath != null && !libraryPath.isEmpty()) {
+            System.load(libraryPath);
+        } else {
+            System.loadLibrary("opencvedgedetector");
+        }
+    }
 
     public static native void nativeInit();
     public static native void nativeResize(int w, int h);
     public static native void nativeSetTexture(int tex, int w, int h);
     public static native void nativeProcess();
     public static native void nativeDrawFrame();
+
+    /**
+     * Converts a YUV_420_888 frame to packed RGB in the persistent native output buffer.
+     * All plane buffers must be direct; they are read in place and never copied.
+     *
+     * @return false if a buffer is not direct or too small for the given strides
+     */
+    public static native boolean nativeProcessYuvPlanes(ByteBuffer yPlane, int yRowStride,
+                                                        ByteBuffer uPlane, ByteBuffer vPlane,
+                                                        int uvRowStride, int uvPixelStride,
+                                                        int width, int height);
+
+    /**
+     * Like {@link #nativeProcessYuvPlanes} but converts only [left, right) x [top, bottom),
+     * leaving the rest of the output buffer untouched. The planes still describe the full
+     * frame; left and top must be even.
+     */
+    public static native boolean nativeProcessYuvRegion(ByteBuffer yPlane, int yRowStride,
+                                                        ByteBuffer uPlane, ByteBuffer vPlane,
+                                                        int uvRowStride, int uvPixelStride,
+                                                        int width, int height,
+                                                        int left, int top, int right, int bottom);
+
+    /**
+     * Fills the whole output buffer with a preview that converts one pixel per
+     * factor x factor block.
+     */
+    public static native boolean nativeProcessYuvLowRes(ByteBuffer yPlane, int yRowStride,
+                                                        ByteBuffer uPlane, ByteBuffer vPlane,
+                                                        int uvRowStride, int uvPixelStride,
+                                                        int width, int height, int factor);
+
+    /** Sizes the output buffer for a width x height frame and clears it to black. */
+    public static native void nativeClearOutput(int width, int height);
+
+    /**
+     * Returns a direct ByteBuffer over the native RGB output of the last processed frame,
+     * or null if nothing has been processed yet. The buffer stays valid until the frame
+     * size changes.
+     */
+    public static native ByteBuffer nativeGetOutputBuffer();
 }
@@ -0,0 +1,112 @@
+package com.nachiket.opencvedgedetector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable rectangle of frame pixels, [left, right) x [top, bottom). Instances are safe
+ * to publish from the UI thread to the processing thread without synchronization.
+ */
+public final class RegionOfInterest {
+    public final int left;
+    public final int top;
+    public final int right;
+    public final int bottom;
+
+    public RegionOfInterest(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = Math.max(left, right);
+        this.bottom = Math.max(top, bottom);
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public boolean isEmpty() {
+        return right <= left || bottom <= top;
+    }
+
+    public boolean intersects(RegionOfInterest other) {
+        return left < other.right && other.left < right && top < other.bottom && other.top < bottom;
+    }
+
+    public RegionOfInterest union(RegionOfInterest other) {
+        return new RegionOfInterest(Math.min(left, other.left), Math.min(top, other.top),
+                Math.max(right, other.right), Math.max(bottom, other.bottom));
+    }
+
+    /** Grows the rectangle by {@code margin} pixels on every side. */
+    public RegionOfInterest expand(int margin) {
+        return new RegionOfInterest(left - margin, top - margin, right + margin, bottom + margin);
+    }
+
+    public RegionOfInterest clamp(int width, int height) {
+        return new RegionOfInterest(Math.max(0, left), Math.max(0, top),
+                Math.min(width, right), Math.min(height, bottom));
+    }
+
+    /** Snaps the edges outwards to even coordinates so the region covers whole chroma samples. */
+    public RegionOfInterest alignToChroma(int width, int height) {
+        return new RegionOfInterest(left & ~1, top & ~1,
+                Math.min(width, (right + 1) & ~1), Math.min(height, (bottom + 1) & ~1));
+    }
+
+    /**
+     * Drops empty regions and merges overlapping ones into their bounding boxes, so the
+     * result can be processed region by region without touching any pixel twice.
+     *
+     * @return an unmodifiable list of disjoint regions
+     */
+    public static List<RegionOfInterest> normalize(List<RegionOfInterest> regions) {
+        List<RegionOfInterest> merged = new ArrayList<>();
+        for (RegionOfInterest region : regions) {
+            if (region != null && !region.isEmpty()) {
+                merged.add(region);
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < merged.size() && !changed; i++) {
+                for (int j = i + 1; j < merged.size(); j++) {
+                    if (merged.get(i).intersects(merged.get(j))) {
+                        merged.set(i, merged.get(i).union(merged.remove(j)));
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RegionOfInterest)) {
+            return false;
+        }
+        RegionOfInterest other = (RegionOfInterest) o;
+        return left == other.left && top == other.top && right == other.right && bottom == other.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((left * 31 + top) * 31 + right) * 31 + bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "RegionOfInterest[" + left + "," + top + " - " + right + "," + bottom + "]";
+    }
+}
@@ -0,0 +1,90 @@
+package com.nachiket.opencvedgedetector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a range of rows (or columns) into contiguous strips and processes them in
+ * parallel on a shared pool. The calling thread works on the first strip itself.
+ */
+public final class StripExecutor {
+
+    public interface StripTask {
+        /** Processes [start, end). {@code strip} is stable per call and below {@link #getParallelism()}. */
+        void run(int strip, int start, int end);
+    }
+
+    private static final StripExecutor SHARED =
+            new StripExecutor(Runtime.getRuntime().availableProcessors());
+
+    private final int parallelism;
+    private final ExecutorService pool;
+
+    public StripExecutor(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = this.parallelism > 1
+                ? Executors.newFixedThreadPool(this.parallelism - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "StripWorker");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public static StripExecutor shared() {
+        return SHARED;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Runs {@code task} over [0, total) and returns once every strip has finished.
+     *
+     * @return the number of strips used, so callers with per-strip state know how many to merge
+     */
+    public int run(int total, StripTask task) {
+        int strips = Math.min(parallelism, total);
+        if (strips <= 1) {
+            if (total > 0) {
+                task.run(0, 0, total);
+                return 1;
+            }
+            return 0;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(strips - 1);
+        for (int strip = 1; strip < strips; strip++) {
+            final int index = strip;
+            final int start = stripStart(total, strips, strip);
+            final int end = stripStart(total, strips, strip + 1);
+            futures.add(pool.submit(() -> task.run(index, start, end)));
+        }
+        task.run(0, 0, stripStart(total, strips, 1));
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Strip task failed", cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for strip tasks", e);
+            }
+        }
+        return strips;
+    }
+
+    private static int stripStart(int total, int strips, int strip) {
+        return (int) ((long) total * strip / strips);
+    }
+}
@@ -0,0 +1,46 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Java YUV_420_888 to RGB conversion. Uses the same fixed-point BT.601 math as the
+ * native path so the two can be checked against each other off-device. Footroom luma
+ * (Y &lt; 16) clamps to black, matching OpenCV's two-plane conversion.
+ */
+public final class YuvConverter {
+
+    private YuvConverter() {
+    }
+
+    public static void yuvToRgb(ByteBuffer yPlane, int yRowStride,
+                                ByteBuffer uPlane, ByteBuffer vPlane,
+                                int uvRowStride, int uvPixelStride,
+                                int width, int height, byte[] rgbOut) {
+        if (rgbOut.length < width * height * 3) {
+            throw new IllegalArgumentException("RGB output too small: " + rgbOut.length
+                    + " < " + (width * height * 3));
+        }
+
+        int out = 0;
+        for (int row = 0; row < height; row++) {
+            int yRow = row * yRowStride;
+            int uvRow = (row >> 1) * uvRowStride;
+            for (int col = 0; col < width; col++) {
+                int uvIndex = uvRow + (col >> 1) * uvPixelStride;
+
+                int c = 298 * Math.max(0, (yPlane.get(yRow + col) & 0xFF) - 16);
+                int d = (uPlane.get(uvIndex) & 0xFF) - 128;
+                int e = (vPlane.get(uvIndex) & 0xFF) - 128;
+
+                int r = (c + 409 * e + 128) >> 8;
+                int g = (c - 100 * d - 208 * e + 128) >> 8;
+                int b = (c + 516 * d + 128) >> 8;
+
+                rgbOut[out] = (byte) Math.max(0, Math.min(255, r));
+                rgbOut[out + 1] = (byte) Math.max(0, Math.min(255, g));
+                rgbOut[out + 2] = (byte) Math.max(0, Math.min(255, b));
+                out += 3;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nachiket.opencvedgedetector;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Timing helpers and wall-clock budgets for the timing tests. Shared or loaded machines make absolute times
+ * unreliable, so budgets are only enforced when benchmarks are requested with
+ * {@code ./gradlew :app:testDebugUnitTest -Pbenchmark}; otherwise times are just reported.
+ */
+final class Benchmarks {
+    static final String PROPERTY = "opencvedgedetector.benchmark";
+
+    private Benchmarks() {
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /** Best-of-N wall time in nanoseconds, after a few warm-up runs. */
+    static long bestTimeNanos(Runnable task, int iterations) {
+        for (int i = 0; i < 3; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /** Reports {@code nanos} and, in benchmark runs, fails if it is not under {@code budgetNanos}. */
+    static void assertWithinBudget(String what, long nanos, long budgetNanos) {
+        System.out.printf(Locale.US, "%s: %.2f ms (budget %.2f ms)%n", what, nanos / 1e6, budgetNanos / 1e6);
+        if (isEnabled()) {
+            assertTrue(String.format(Locale.US, "%s took %.2f ms, over the %.2f ms budget",
+                    what, nanos / 1e6, budgetNanos / 1e6), nanos < budgetNanos);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EdgeDetectorTest {
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 120;
+    private static final int LOW = 10;
+    private static final int HIGH = 60;
+
+    @Test
+    public void findsStepEdge() {
+        ByteBuffer luma = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                luma.put(y * WIDTH + x, (byte) (x < WIDTH / 2 ? 20 : 220));
+            }
+        }
+
+        byte[] edges = new EdgeDetector(new StripExecutor(3)).detect(luma, WIDTH, WIDTH, HEIGHT, 40);
+
+        for (int y = 1; y < HEIGHT - 1; y++) {
+            assertEquals(0, edges[y * WIDTH + WIDTH / 4]);
+            assertEquals(-1, edges[y * WIDTH + WIDTH / 2]);
+        }
+        assertEquals(0, edges[WIDTH / 2]);
+    }
+
+    @Test
+    public void regions_matchFullFrameAndStayZeroOutside() {
+        ByteBuffer luma = TestFrames.randomDirect(WIDTH * HEIGHT, 32);
+        EdgeDetector detector = new EdgeDetector(new StripExecutor(2));
+        byte[] expected = detector.detect(luma, WIDTH, WIDTH, HEIGHT, 30).clone();
+
+        List<RegionOfInterest> regions = RegionOfInterest.normalize(Arrays.asList(
+                new RegionOfInterest(0, 0, 30, 20), new RegionOfInterest(100, 60, 160, 120)));
+        byte[] edges = detector.detect(luma, WIDTH, WIDTH, HEIGHT, 30, regions);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int i = y * WIDTH + x;
+                boolean inside = false;
+                for (RegionOfInterest r : regions) {
+                    inside |= x >= r.left && x < r.right && y >= r.top && y < r.bottom;
+                }
+                assertEquals("pixel " + x + "," + y, inside ? expected[i] : 0, edges[i]);
+            }
+        }
+    }
+
+    /**
+     * Two vertical steps: at x = 40 one whose upper half is strong (magnitude 100) and lower
+     * half weak (20), and at x = 120 a weak one on its own.
+     */
+    private static ByteBuffer fadingSteps() {
+        ByteBuffer luma = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            int left = y < HEIGHT / 2 ? 200 : 40;
+            for (int x = 0; x < WIDTH; x++) {
+                int value = x < 40 ? 0 : x < 80 ? left : x < 120 ? 100 : 140;
+                luma.put(y * WIDTH + x, (byte) value);
+            }
+        }
+        return luma;
+    }
+
+    @Test
+    public void hysteresis_keepsWeakEdgesOnlyWhereConnected() {
+        ByteBuffer luma = fadingSteps();
+        EdgeDetector detector = new EdgeDetector(new StripExecutor(3));
+
+        byte[] single = detector.detect(luma, WIDTH, WIDTH, HEIGHT, HIGH).clone();
+        byte[] traced = detector.detect(luma, WIDTH, WIDTH, HEIGHT, LOW, HIGH);
+
+        for (int y = 1; y < HEIGHT - 1; y++) {
+            // Rows next to the change in contrast see both halves
+            if (Math.abs(y - HEIGHT / 2) > 2) {
+                assertEquals("single threshold, row " + y, y < HEIGHT / 2 ? -1 : 0, single[y * WIDTH + 40]);
+            }
+            assertEquals("traced, row " + y, -1, traced[y * WIDTH + 40]);
+            assertEquals("isolated weak step, row " + y, 0, traced[y * WIDTH + 120]);
+        }
+        for (byte value : traced) {
+            assertTrue(value == 0 || value == -1);
+        }
+    }
+
+    @Test
+    public void hysteresis_tracesAcrossTouchingRegions() {
+        ByteBuffer luma = fadingSteps();
+        EdgeDetector detector = new EdgeDetector(new StripExecutor(3));
+        byte[] expected = detector.detect(luma, WIDTH, WIDTH, HEIGHT, LOW, HIGH).clone();
+
+        // The weak lower half of the step is only reachable from the region above it
+        List<RegionOfInterest> regions = Arrays.asList(
+                new RegionOfInterest(20, 10, 140, 62),
+                new RegionOfInterest(20, 62, 140, 110));
+        byte[] edges = detector.detect(luma, WIDTH, WIDTH, HEIGHT, LOW, HIGH, regions);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean inside = y >= 10 && y < 110 && x >= 20 && x < 140;
+                assertEquals("pixel " + x + "," + y, inside ? expected[y * WIDTH + x] : 0, edges[y * WIDTH + x]);
+            }
+        }
+        assertEquals(-1, edges[100 * WIDTH + 40]);
+    }
+
+    @Test
+    public void hysteresis_matchesFloodFillOnDenseNoise() {
+        // Enough weak pixels for the branch-free sweeps, with paths winding in every direction
+        ByteBuffer luma = TestFrames.randomDirect(WIDTH * HEIGHT, 51);
+        EdgeDetector detector = new EdgeDetector(new StripExecutor(3));
+        byte[] strong = detector.detect(luma, WIDTH, WIDTH, HEIGHT, 70).clone();
+        byte[] candidates = detector.detect(luma, WIDTH, WIDTH, HEIGHT, 40).clone();
+
+        byte[] expected = strong.clone();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int p = 0; p < expected.length; p++) {
+            if (expected[p] != 0) {
+                queue.add(p);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int p = queue.poll();
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int n = p + dy * WIDTH + dx;
+                    if (candidates[n] != 0 && expected[n] == 0) {
+                        expected[n] = -1;
+                        queue.add(n);
+                    }
+                }
+            }
+        }
+
+        assertArrayEquals(expected, detector.detect(luma, WIDTH, WIDTH, HEIGHT, 40, 70));
+    }
+}
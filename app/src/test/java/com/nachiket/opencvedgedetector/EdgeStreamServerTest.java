@@ -0,0 +1,359 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class EdgeStreamServerTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+    private static final int KEYFRAME_INTERVAL = 10;
+
+    private EdgeStreamServer server;
+    private final List<LoopbackClient> clients = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EdgeStreamServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                KEYFRAME_INTERVAL, 2);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (LoopbackClient client : clients) {
+            client.close();
+        }
+        server.close();
+    }
+
+    /** A moving rectangle outline with sparse noise, like a steady scene's edge map. */
+    private static byte[] sceneFrame(int index, int width, int height) {
+        byte[] edges = new byte[width * height];
+        int left = 20 + index % 50;
+        int top = 30 + index % 20;
+        for (int x = left; x < left + 120; x++) {
+            edges[top * width + x] = (byte) 255;
+            edges[(top + 80) * width + x] = (byte) 255;
+        }
+        for (int y = top; y <= top + 80; y++) {
+            edges[y * width + left] = (byte) 255;
+            edges[y * width + left + 119] = (byte) 255;
+        }
+        Random random = new Random(index);
+        for (int i = 0; i < 50; i++) {
+            edges[random.nextInt(edges.length)] = (byte) 255;
+        }
+        return edges;
+    }
+
+    private static void assertSameEdges(String message, byte[] expected, byte[] actual) {
+        assertEquals(message, expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            if ((expected[i] != 0) != (actual[i] != 0)) {
+                fail(message + ": pixel " + i + " differs");
+            }
+        }
+    }
+
+    @Test
+    public void codec_roundTripsKeyframesAndDeltas() {
+        EdgeMapEncoder encoder = new EdgeMapEncoder(KEYFRAME_INTERVAL);
+        EdgeMapDecoder decoder = new EdgeMapDecoder();
+        long raw = 0;
+        long encoded = 0;
+        for (int i = 0; i < 3 * KEYFRAME_INTERVAL; i++) {
+            byte[] edges = sceneFrame(i, WIDTH, HEIGHT);
+            EdgeMapEncoder.EncodedFrame frame = encoder.encode(edges, WIDTH, HEIGHT);
+            assertEquals(i, frame.sequence);
+            assertEquals(i % KEYFRAME_INTERVAL == 0, frame.keyframe);
+            raw += frame.rawBytes;
+            encoded += frame.size();
+
+            ByteBuffer packet = frame.buffer();
+            assertEquals(EdgeMapDecoder.FRAME_DECODED, decoder.decode(packet));
+            assertFalse(packet.hasRemaining());
+            assertEquals(i, decoder.getSequence());
+            assertSameEdges("frame " + i, edges, decoder.getEdges());
+        }
+        System.out.printf("Edge map codec: %d -> %d bytes, ratio %.1f:1%n", raw, encoded, (double) raw / encoded);
+        assertTrue("Sparse edges should compress well", raw > 20 * encoded);
+    }
+
+    @Test
+    public void codec_sizeChangeForcesKeyframeAndPartialPacketsWait() {
+        EdgeMapEncoder encoder = new EdgeMapEncoder(KEYFRAME_INTERVAL);
+        encoder.encode(sceneFrame(0, WIDTH, HEIGHT), WIDTH, HEIGHT);
+        EdgeMapEncoder.EncodedFrame resized = encoder.encode(sceneFrame(1, 200, 150), 200, 150);
+        assertTrue(resized.keyframe);
+
+        ByteBuffer packet = resized.buffer();
+        ByteBuffer partial = packet.duplicate();
+        partial.limit(packet.limit() - 1);
+        EdgeMapDecoder decoder = new EdgeMapDecoder();
+        assertEquals(EdgeMapDecoder.NEED_MORE_DATA, decoder.decode(partial));
+        assertEquals(0, partial.position());
+        assertEquals(EdgeMapDecoder.FRAME_DECODED, decoder.decode(packet));
+        assertEquals(200, decoder.getWidth());
+        assertEquals(150, decoder.getHeight());
+        assertSameEdges("resized", sceneFrame(1, 200, 150), decoder.getEdges());
+    }
+
+    @Test
+    public void decoder_skipsDeltasUntilKeyframe() {
+        EdgeMapEncoder encoder = new EdgeMapEncoder(4);
+        List<ByteBuffer> packets = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            packets.add(encoder.encode(sceneFrame(i, WIDTH, HEIGHT), WIDTH, HEIGHT).buffer());
+        }
+
+        EdgeMapDecoder decoder = new EdgeMapDecoder();
+        for (int i = 2; i < 4; i++) {
+            assertEquals(EdgeMapDecoder.FRAME_SKIPPED, decoder.decode(packets.get(i)));
+        }
+        assertEquals(EdgeMapDecoder.FRAME_DECODED, decoder.decode(packets.get(4)));
+        assertEquals(EdgeMapDecoder.FRAME_DECODED, decoder.decode(packets.get(5)));
+        // A lost delta breaks the chain until the following keyframe
+        assertEquals(EdgeMapDecoder.FRAME_SKIPPED, decoder.decode(packets.get(7)));
+        assertEquals(EdgeMapDecoder.FRAME_DECODED, decoder.decode(packets.get(8)));
+        assertSameEdges("frame 8", sceneFrame(8, WIDTH, HEIGHT), decoder.getEdges());
+    }
+
+    @Test
+    public void server_streamsEveryFrameToLoopbackClients() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            clients.add(new LoopbackClient(server.getPort()));
+        }
+        waitFor(() -> server.getClientCount() == 3);
+
+        int frames = 4 * KEYFRAME_INTERVAL;
+        for (int i = 0; i < frames; i++) {
+            publishAndWait(i);
+        }
+
+        for (LoopbackClient client : clients) {
+            assertEquals(frames, client.decoded);
+            assertEquals(0, client.errors);
+            assertSameEdges("last frame", sceneFrame(frames - 1, WIDTH, HEIGHT), client.decoder.getEdges());
+        }
+        for (EdgeStreamServer.ClientStats stats : server.getClientStats()) {
+            System.out.println("Edge stream " + stats);
+            assertEquals(frames, stats.framesSent);
+            assertEquals(0, stats.framesDropped);
+            assertTrue(stats.compressionRatio() > 20);
+        }
+    }
+
+    @Test
+    public void server_lateJoinerStartsAtNextKeyframe() throws Exception {
+        clients.add(new LoopbackClient(server.getPort()));
+        waitFor(() -> server.getClientCount() == 1);
+        for (int i = 0; i < 13; i++) {
+            publishAndWait(i);
+        }
+
+        LoopbackClient late = new LoopbackClient(server.getPort());
+        clients.add(late);
+        waitFor(() -> server.getClientCount() == 2);
+        for (int i = 13; i < 25; i++) {
+            server.publish(sceneFrame(i, WIDTH, HEIGHT), WIDTH, HEIGHT);
+            int sequence = i;
+            waitFor(() -> clients.get(0).lastSequence() == sequence
+                    && (sequence < 2 * KEYFRAME_INTERVAL || late.lastSequence() == sequence));
+        }
+
+        assertEquals(2 * KEYFRAME_INTERVAL, late.firstSequence);
+        assertEquals(0, late.skipped);
+        assertEquals(0, late.errors);
+        assertEquals(25, clients.get(0).decoded);
+    }
+
+    @Test
+    public void server_dropsFramesForSlowClientWithoutStallingOthers() throws Exception {
+        int width = 640;
+        int height = 480;
+        // Dense noise encodes to roughly half a byte per pixel, enough to fill socket buffers
+        Random random = new Random(5);
+        byte[][] noise = new byte[4][width * height];
+        for (byte[] frame : noise) {
+            for (int i = 0; i < frame.length; i++) {
+                frame[i] = random.nextBoolean() ? (byte) 255 : 0;
+            }
+        }
+
+        LoopbackClient fast = new LoopbackClient(server.getPort());
+        LoopbackClient slow = new LoopbackClient(server.getPort());
+        slow.setPaused(true);
+        clients.add(fast);
+        clients.add(slow);
+        waitFor(() -> server.getClientCount() == 2);
+
+        int frames = 60;
+        for (int i = 0; i < frames; i++) {
+            server.publish(noise[i % noise.length], width, height);
+            int sequence = i;
+            waitFor(() -> fast.lastSequence() == sequence);
+        }
+        assertEquals(frames, fast.decoded);
+
+        EdgeStreamServer.ClientStats slowStats = null;
+        for (EdgeStreamServer.ClientStats stats : server.getClientStats()) {
+            System.out.println("Edge stream " + stats);
+            if (stats.framesDropped > 0) {
+                slowStats = stats;
+            }
+        }
+        assertNotNull("The stalled client should have had frames dropped", slowStats);
+        assertTrue(slowStats.framesSent < frames);
+
+        // Once it reads again it catches up from a keyframe and decodes cleanly
+        slow.setPaused(false);
+        for (int i = frames; i < frames + 2 * KEYFRAME_INTERVAL; i++) {
+            server.publish(noise[i % noise.length], width, height);
+            Thread.sleep(5);
+        }
+        int last = frames + 2 * KEYFRAME_INTERVAL - 1;
+        waitFor(() -> slow.lastSequence() == last);
+        assertEquals(0, slow.errors);
+        assertSameEdges("slow client", noise[last % noise.length], slow.decoder.getEdges());
+    }
+
+    @Test
+    public void server_survivesAbortedConnectionsAndIgnoresFramesWhenStopped() throws Exception {
+        // Reset right after connecting, so the server may fail while setting the client up
+        for (int i = 0; i < 5; i++) {
+            SocketChannel aborted = SocketChannel.open(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+            aborted.setOption(StandardSocketOptions.SO_LINGER, 0);
+            aborted.close();
+        }
+        waitFor(() -> server.getClientCount() == 0);
+        assertTrue(server.isRunning());
+        assertNull(server.getFailure());
+
+        server.close();
+        assertFalse(server.isRunning());
+        // Not encoded, so the next server's stream is not affected
+        server.publish(sceneFrame(0, WIDTH, HEIGHT), WIDTH, HEIGHT);
+
+        EdgeStreamServer idle = new EdgeStreamServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), KEYFRAME_INTERVAL, 2);
+        try {
+            for (int i = 0; i < 3; i++) {
+                idle.publish(sceneFrame(i, WIDTH, HEIGHT), WIDTH, HEIGHT);
+            }
+            server = idle;
+            idle.start();
+            clients.add(new LoopbackClient(idle.getPort()));
+            waitFor(() -> idle.getClientCount() == 1);
+            // Frames before start() were never encoded, so the stream begins at sequence 0
+            publishAndWait(0);
+            assertEquals(0, clients.get(0).firstSequence);
+        } finally {
+            idle.close();
+        }
+    }
+
+    /** Publishes scene frame {@code index} and waits for every client to decode it. */
+    private void publishAndWait(int index) throws InterruptedException {
+        server.publish(sceneFrame(index, WIDTH, HEIGHT), WIDTH, HEIGHT);
+        waitFor(() -> clients.stream().allMatch(c -> c.lastSequence() == index));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for loopback clients");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    /** Blocking client that decodes the stream on its own thread. */
+    private static final class LoopbackClient implements Runnable {
+        final SocketChannel channel;
+        final EdgeMapDecoder decoder = new EdgeMapDecoder();
+        final Thread thread;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        volatile int decoded;
+        volatile int skipped;
+        volatile int errors;
+        volatile int firstSequence = -1;
+        volatile int lastSequence = -1;
+        private volatile boolean paused;
+
+        LoopbackClient(int port) throws IOException {
+            channel = SocketChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 16 * 1024);
+            channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            thread = new Thread(this, "LoopbackClient");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int lastSequence() {
+            return lastSequence;
+        }
+
+        void setPaused(boolean paused) {
+            this.paused = paused;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    if (paused) {
+                        Thread.sleep(1);
+                        continue;
+                    }
+                    if (!buffer.hasRemaining()) {
+                        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                        buffer.flip();
+                        larger.put(buffer);
+                        buffer = larger;
+                    }
+                    if (channel.read(buffer) < 0) {
+                        return;
+                    }
+                    buffer.flip();
+                    int result;
+                    while ((result = decoder.decode(buffer)) != EdgeMapDecoder.NEED_MORE_DATA) {
+                        if (result == EdgeMapDecoder.FRAME_SKIPPED) {
+                            skipped++;
+                            continue;
+                        }
+                        if (firstSequence < 0) {
+                            firstSequence = decoder.getSequence();
+                        }
+                        decoded++;
+                        lastSequence = decoder.getSequence();
+                    }
+                    buffer.compact();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Closed by the test
+            } catch (RuntimeException e) {
+                errors++;
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class EdgeThresholdEstimatorTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+
+    @Test
+    public void otsu_splitsBimodalHistogram() {
+        int[] histogram = new int[256];
+        histogram[10] = 500;
+        histogram[12] = 300;
+        histogram[90] = 100;
+        histogram[95] = 50;
+
+        int threshold = EdgeThresholdEstimator.otsu(histogram, 950);
+        assertTrue("threshold " + threshold, threshold > 12 && threshold <= 90);
+    }
+
+    @Test
+    public void percentile_findsMedian() {
+        int[] histogram = new int[256];
+        histogram[40] = 10;
+        histogram[100] = 11;
+        histogram[200] = 10;
+        assertEquals(100, EdgeThresholdEstimator.percentile(histogram, 31, 0.5f));
+    }
+
+    @Test
+    public void stripedBins_matchSingleThread() {
+        ByteBuffer luma = TestFrames.randomDirect(WIDTH * HEIGHT, 41);
+        EdgeThresholdEstimator single = new EdgeThresholdEstimator(new StripExecutor(1));
+        EdgeThresholdEstimator striped = new EdgeThresholdEstimator(new StripExecutor(5));
+        single.setSubsample(3);
+        striped.setSubsample(3);
+
+        single.update(luma, WIDTH, WIDTH, HEIGHT);
+        striped.update(luma, WIDTH, WIDTH, HEIGHT);
+
+        assertArrayEquals(single.getSnapshot().lumaHistogram, striped.getSnapshot().lumaHistogram);
+        assertArrayEquals(single.getSnapshot().gradientHistogram, striped.getSnapshot().gradientHistogram);
+        assertEquals(((WIDTH + 2) / 3) * ((HEIGHT + 2) / 3), striped.getSnapshot().samples);
+    }
+
+    @Test
+    public void medianThresholds_followBrightnessSmoothly() {
+        EdgeThresholdEstimator estimator = new EdgeThresholdEstimator(new StripExecutor(2));
+        estimator.setMethod(EdgeThresholdEstimator.METHOD_MEDIAN);
+        estimator.setSmoothing(0.25f);
+
+        estimator.update(flat(64), WIDTH, WIDTH, HEIGHT);
+        int dim = estimator.getHighThreshold();
+
+        estimator.update(flat(192), WIDTH, WIDTH, HEIGHT);
+        int stepped = estimator.getHighThreshold();
+        EdgeThresholdEstimator.Snapshot snapshot = estimator.getSnapshot();
+
+        assertTrue(snapshot.rawHigh > dim);
+        assertTrue("smoothing should lag the raw value", stepped > dim && stepped < snapshot.rawHigh);
+        assertTrue(estimator.getLowThreshold() <= stepped);
+    }
+
+    @Test
+    public void fullHdFrame_costsAFractionOfEdgeDetection() {
+        int width = 1920;
+        int height = 1080;
+        ByteBuffer luma = TestFrames.randomDirect(width * height, 42);
+        EdgeThresholdEstimator estimator = new EdgeThresholdEstimator();
+        EdgeDetector detector = new EdgeDetector();
+
+        long nanos = Benchmarks.bestTimeNanos(() -> estimator.update(luma, width, width, height), 10);
+        long edgeNanos = Benchmarks.bestTimeNanos(() -> detector.detect(luma, width, width, height,
+                estimator.getLowThreshold(), estimator.getHighThreshold()), 10);
+        System.out.printf("Histogram + thresholds %dx%d, subsample 4: %.2f ms vs %.2f ms edge detection (high=%d, low=%d)%n",
+                width, height, nanos / 1e6, edgeNanos / 1e6, estimator.getHighThreshold(), estimator.getLowThreshold());
+
+        // A 1/16 subsample must stay cheap next to the edge pass it tunes, whatever the machine
+        assertTrue(nanos < edgeNanos / 2);
+    }
+
+    private static ByteBuffer flat(int value) {
+        ByteBuffer luma = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            luma.put(i, (byte) value);
+        }
+        return luma;
+    }
+}
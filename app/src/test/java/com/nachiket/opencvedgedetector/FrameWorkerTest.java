@@ -0,0 +1,98 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class FrameWorkerTest {
+    // One camera frame at 30 fps
+    private static final long FRAME_BUDGET_NANOS = 33_333_333L;
+
+    @Test
+    public void submit_copiesRegionRowsAndDropsWhileBusy() throws Exception {
+        int width = 64;
+        int height = 48;
+        int rowStride = width + 16;
+        ByteBuffer luma = TestFrames.randomDirect(rowStride * height, 41);
+        RegionOfInterest region = new RegionOfInterest(10, 8, 30, 20);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<byte[]> seen = new AtomicReference<>();
+        FrameWorker worker = new FrameWorker("TestWorker", (frame, w, h, regions) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] pixels = new byte[w * h];
+            frame.duplicate().get(pixels);
+            seen.set(pixels);
+            done.countDown();
+        });
+
+        List<RegionOfInterest> regions = Collections.singletonList(region);
+        assertTrue(worker.submit(luma, rowStride, width, height, regions));
+        assertFalse(worker.submit(luma, rowStride, width, height, regions));
+        assertEquals(1, worker.getDroppedCount());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        RegionOfInterest halo = region.expand(1);
+        byte[] pixels = seen.get();
+        for (int y = halo.top; y < halo.bottom; y++) {
+            for (int x = halo.left; x < halo.right; x++) {
+                assertEquals("pixel " + x + "," + y, luma.get(y * rowStride + x), pixels[y * width + x]);
+            }
+        }
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (worker.isBusy() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(worker.submit(luma, rowStride, width, height, null));
+    }
+
+    @Test
+    public void fullHdLineDetection_staysOffTheCameraFrameBudget() throws Exception {
+        int width = 1920;
+        int height = 1080;
+        ByteBuffer luma = TestFrames.randomDirect(width * height, 42);
+        EdgeDetector edgeDetector = new EdgeDetector();
+        HoughLineDetector lineDetector = new HoughLineDetector(180, 150, 16);
+        AtomicReference<CountDownLatch> done = new AtomicReference<>();
+        FrameWorker worker = new FrameWorker("TestWorker", (frame, w, h, regions) -> {
+            byte[] edges = edgeDetector.detect(frame, w, w, h, 40);
+            lineDetector.detect(edges, w, h);
+            done.get().countDown();
+        });
+
+        long bestSubmit = Long.MAX_VALUE;
+        long bestPipeline = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            done.set(new CountDownLatch(1));
+            long start = System.nanoTime();
+            assertTrue(worker.submit(luma, width, width, height, null));
+            long submitted = System.nanoTime();
+            assertTrue(done.get().await(10, TimeUnit.SECONDS));
+            bestSubmit = Math.min(bestSubmit, submitted - start);
+            bestPipeline = Math.min(bestPipeline, System.nanoTime() - start);
+            while (worker.isBusy()) {
+                Thread.sleep(1);
+            }
+        }
+        System.out.printf("1080p line detection on %d cores%n", Runtime.getRuntime().availableProcessors());
+
+        // The camera thread only copies luma; keep that under a quarter of a frame
+        Benchmarks.assertWithinBudget("Camera thread hand-off", bestSubmit, FRAME_BUDGET_NANOS / 4);
+        // Background edges plus Hough must refresh lines at >= 7.5 fps even on one core
+        Benchmarks.assertWithinBudget("Background edges and lines", bestPipeline, 4 * FRAME_BUDGET_NANOS);
+    }
+}
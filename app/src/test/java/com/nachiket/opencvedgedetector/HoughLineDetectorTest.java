@@ -0,0 +1,135 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HoughLineDetectorTest {
+    // Two camera frames at 30 fps
+    private static final long LINE_REFRESH_BUDGET_NANOS = 66_666_666L;
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    public void detectsHorizontalAndVerticalLines() {
+        byte[] edges = new byte[WIDTH * HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            edges[100 * WIDTH + x] = (byte) 255;
+        }
+        for (int y = 0; y < HEIGHT; y++) {
+            edges[y * WIDTH + 50] = (byte) 255;
+        }
+
+        List<HoughLineDetector.Line> lines =
+                new HoughLineDetector(new StripExecutor(4), 180, 100, 10).detect(edges, WIDTH, HEIGHT);
+
+        assertEquals(2, lines.size());
+        assertLine(lines, 50, 0);
+        assertLine(lines, 100, 90);
+    }
+
+    @Test
+    public void perThreadAccumulators_matchSingleThread() {
+        byte[] edges = noisyEdges(WIDTH, HEIGHT, 21);
+        HoughLineDetector single = new HoughLineDetector(new StripExecutor(1), 90, 40, 0);
+        HoughLineDetector parallel = new HoughLineDetector(new StripExecutor(6), 90, 40, 0);
+
+        List<HoughLineDetector.Line> expected = single.detect(edges, WIDTH, HEIGHT);
+        List<HoughLineDetector.Line> actual = parallel.detect(edges, WIDTH, HEIGHT);
+
+        assertArrayEquals(single.getAccumulator(), parallel.getAccumulator());
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    public void endpoints_areClippedToFrame() {
+        float[] p = new HoughLineDetector.Line(100, (float) (Math.PI / 2), 1).endpoints(WIDTH, HEIGHT);
+        assertNotNull(p);
+        assertEquals(0, Math.min(p[0], p[2]), 1e-3);
+        assertEquals(WIDTH - 1, Math.max(p[0], p[2]), 1e-3);
+        assertEquals(100, p[1], 1e-3);
+        assertEquals(100, p[3], 1e-3);
+
+        assertNull(new HoughLineDetector.Line(5000, 0, 1).endpoints(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void regions_ignoreLinesOutsideThem() {
+        byte[] edges = new byte[WIDTH * HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            edges[20 * WIDTH + x] = (byte) 255;
+            edges[90 * WIDTH + x] = (byte) 255;
+        }
+        List<RegionOfInterest> regions = RegionOfInterest.normalize(Arrays.asList(
+                new RegionOfInterest(0, 80, WIDTH, 100)));
+
+        List<HoughLineDetector.Line> lines =
+                new HoughLineDetector(new StripExecutor(3), 180, 80, 4).detect(edges, WIDTH, HEIGHT, regions);
+
+        assertEquals(1, lines.size());
+        assertEquals(90, lines.get(0).rho, 1);
+    }
+
+    @Test
+    public void fullHdFrame_timing() {
+        int width = 1920;
+        int height = 1080;
+        byte[] edges = noisyEdges(width, height, 22);
+        for (int x = 0; x < width; x++) {
+            edges[540 * width + x] = (byte) 255;
+        }
+        HoughLineDetector detector = new HoughLineDetector(180, 600, 16);
+
+        long nanos = Benchmarks.bestTimeNanos(() -> detector.detect(edges, width, height), 5);
+
+        assertLine(detector.detect(edges, width, height), 540, 90);
+        // Detection runs off the camera thread; it must keep lines refreshing at 15 fps on one core
+        Benchmarks.assertWithinBudget("Hough 1080p, 180 angles", nanos, LINE_REFRESH_BUDGET_NANOS);
+    }
+
+    @Test
+    public void denseFullHdFrame_isCappedByEdgeSubsampling() {
+        int width = 1920;
+        int height = 1080;
+        // A fifth of the frame is edges, as with sensor noise under a low threshold
+        Random random = new Random(23);
+        byte[] edges = new byte[width * height];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = random.nextInt(5) == 0 ? (byte) 255 : 0;
+        }
+        for (int y = 0; y < height; y++) {
+            edges[y * width + 700] = (byte) 255;
+        }
+        HoughLineDetector detector = new HoughLineDetector(180, 600, 1);
+
+        long nanos = Benchmarks.bestTimeNanos(() -> detector.detect(edges, width, height), 3);
+
+        assertLine(detector.detect(edges, width, height), 700, 0);
+        Benchmarks.assertWithinBudget("Hough 1080p dense, capped", nanos, LINE_REFRESH_BUDGET_NANOS);
+    }
+
+    private static byte[] noisyEdges(int width, int height, long seed) {
+        // ~5% edge density, typical of a busy scene after thresholding
+        Random random = new Random(seed);
+        byte[] edges = new byte[width * height];
+        for (int i = 0; i < edges.length; i++) {
+            if (random.nextInt(20) == 0) {
+                edges[i] = (byte) 255;
+            }
+        }
+        return edges;
+    }
+
+    private static void assertLine(List<HoughLineDetector.Line> lines, float rho, double thetaDegrees) {
+        for (HoughLineDetector.Line line : lines) {
+            if (Math.abs(line.rho - rho) <= 1 && Math.abs(Math.toDegrees(line.theta) - thetaDegrees) <= 1) {
+                return;
+            }
+        }
+        fail("No line near rho=" + rho + " theta=" + thetaDegrees + " in " + lines);
+    }
+}
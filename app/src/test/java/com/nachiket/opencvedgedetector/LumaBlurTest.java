@@ -0,0 +1,139 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class LumaBlurTest {
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 61;
+
+    @Test
+    public void boxBlur_matchesNaiveReference() {
+        int rowStride = WIDTH + 13;
+        ByteBuffer luma = TestFrames.randomDirect(rowStride * HEIGHT, 11);
+        LumaBlur blur = new LumaBlur(new StripExecutor(4));
+
+        for (int radius : new int[]{0, 1, 4, 25, 200}) {
+            ByteBuffer out = blur.boxBlur(luma, rowStride, WIDTH, HEIGHT, radius);
+            byte[] expected = naiveBox(luma, rowStride, radius);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("radius " + radius + " pixel " + i, expected[i] & 0xFF, out.get(i) & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void gaussianBlur_keepsFlatFieldFlat() {
+        ByteBuffer luma = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            luma.put(i, (byte) 173);
+        }
+
+        ByteBuffer out = new LumaBlur().gaussianBlur(luma, WIDTH, WIDTH, HEIGHT, 6.0);
+        assertEquals(WIDTH * HEIGHT, out.remaining());
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            assertEquals(173, out.get(i) & 0xFF);
+        }
+    }
+
+    @Test
+    public void fullFrameBlur_survivesFrameSizeChanges() {
+        LumaBlur blur = new LumaBlur(new StripExecutor(2));
+        int[][] sizes = {{320, 240}, {160, 120}, {256, 200}};
+        for (int[] size : sizes) {
+            int w = size[0];
+            int h = size[1];
+            ByteBuffer luma = ByteBuffer.allocateDirect(w * h);
+            for (int i = 0; i < w * h; i++) {
+                luma.put(i, (byte) 91);
+            }
+            ByteBuffer box = blur.boxBlur(luma, w, w, h, 3);
+            assertEquals(w * h, box.remaining());
+            assertEquals(91, box.get(w * h - 1) & 0xFF);
+
+            ByteBuffer gaussian = blur.gaussianBlur(luma, w, w, h, 2.0);
+            assertEquals(w * h, gaussian.remaining());
+            assertEquals(91, gaussian.get(w * h - 1) & 0xFF);
+        }
+    }
+
+    @Test
+    public void gaussianBoxRadii_matchVariance() {
+        assertArrayEquals(new int[]{0, 0, 0}, LumaBlur.gaussianBoxRadii(0));
+        for (double sigma : new double[]{1.0, 2.5, 5.0, 12.0}) {
+            double variance = 0;
+            for (int r : LumaBlur.gaussianBoxRadii(sigma)) {
+                variance += ((2.0 * r + 1) * (2.0 * r + 1) - 1) / 12.0;
+            }
+            assertEquals("sigma " + sigma, sigma * sigma, variance, sigma);
+        }
+    }
+
+    @Test
+    public void regionBlur_matchesFullFrameInsideTarget() {
+        int width = 160;
+        int height = 120;
+        ByteBuffer luma = TestFrames.randomDirect(width * height, 31);
+        LumaBlur blur = new LumaBlur(new StripExecutor(2));
+        double sigma = 3.0;
+
+        ByteBuffer full = blur.gaussianBlur(luma, width, width, height, sigma);
+        byte[] expected = new byte[width * height];
+        full.get(expected);
+
+        RegionOfInterest target = new RegionOfInterest(40, 30, 90, 70);
+        RegionOfInterest window = target.expand(LumaBlur.gaussianHalo(sigma)).clamp(width, height);
+        ByteBuffer dst = ByteBuffer.allocateDirect(width * height);
+        blur.gaussianBlur(luma, width, window, target, dst, width, sigma);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                boolean inside = x >= target.left && x < target.right && y >= target.top && y < target.bottom;
+                assertEquals("pixel " + x + "," + y, inside ? expected[i] : 0, dst.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void boxBlur_costIsFlatAcrossRadius() {
+        int width = 1920;
+        int height = 1080;
+        ByteBuffer luma = TestFrames.randomDirect(width * height, 12);
+        LumaBlur blur = new LumaBlur();
+
+        long[] nanos = new long[26];
+        for (int radius : new int[]{1, 5, 10, 25}) {
+            nanos[radius] = Benchmarks.bestTimeNanos(
+                    () -> blur.boxBlur(luma, width, width, height, radius), 5);
+            System.out.printf("Box blur %dx%d r=%d: %.2f ms%n", width, height, radius, nanos[radius] / 1e6);
+        }
+        long gaussian = Benchmarks.bestTimeNanos(
+                () -> blur.gaussianBlur(luma, width, width, height, 8.0), 5);
+        System.out.printf("Gaussian blur %dx%d sigma=8: %.2f ms%n", width, height, gaussian / 1e6);
+
+        // Generous bound so scheduler noise doesn't fail the build; O(r^2) would be ~300x
+        assertTrue(nanos[25] < nanos[1] * 3);
+    }
+
+    private static byte[] naiveBox(ByteBuffer luma, int rowStride, int radius) {
+        byte[] out = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int yy = Math.max(0, y - radius); yy <= Math.min(HEIGHT - 1, y + radius); yy++) {
+                    for (int xx = Math.max(0, x - radius); xx <= Math.min(WIDTH - 1, x + radius); xx++) {
+                        sum += luma.get(yy * rowStride + xx) & 0xFF;
+                        count++;
+                    }
+                }
+                out[y * WIDTH + x] = (byte) ((sum + count / 2) / count);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,26 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Assume;
+
+import java.io.File;
+
+/**
+ * Loads the host (Linux x86_64) build of the native library into the desktop JVM. Frame
+ * fixtures are in {@link TestFrames} and timing helpers in {@link Benchmarks}.
+ */
+final class NativeTestHarness {
+
+    private NativeTestHarness() {
+    }
+
+    static boolean isLibraryAvailable() {
+        String path = System.getProperty(NativeRenderer.LIBRARY_PATH_PROPERTY);
+        return path != null && new File(path).isFile();
+    }
+
+    /** Skips the calling test unless the host library has been built. */
+    static void assumeLibrary() {
+        Assume.assumeTrue("Host native library not built, see src/main/cpp/CMakeLists.txt",
+                isLibraryAvailable());
+    }
+}
@@ -0,0 +1,146 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the native zero-copy conversion against {@link YuvConverter} on the host JVM
+ * and reports how the two compare in speed.
+ */
+public class NativeYuvConversionTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Before
+    public void setUp() {
+        NativeTestHarness.assumeLibrary();
+    }
+
+    @Test
+    public void planarChroma_matchesJava() {
+        int yRowStride = WIDTH + 64;
+        int uvRowStride = WIDTH / 2 + 32;
+        ByteBuffer y = TestFrames.randomDirect(yRowStride * HEIGHT, 1);
+        ByteBuffer u = TestFrames.randomDirect(uvRowStride * HEIGHT / 2, 2);
+        ByteBuffer v = TestFrames.randomDirect(uvRowStride * HEIGHT / 2, 3);
+
+        assertEquals(0, maxDifference(y, yRowStride, u, v, uvRowStride, 1));
+    }
+
+    @Test
+    public void interleavedChroma_matchesJava() {
+        // NV21-style plane: V and U interleaved in one buffer, U offset by one byte
+        int uvRowStride = WIDTH;
+        ByteBuffer y = TestFrames.randomDirect(WIDTH * HEIGHT, 4);
+        ByteBuffer vu = TestFrames.randomDirect(uvRowStride * HEIGHT / 2, 5);
+        ByteBuffer v = TestFrames.slice(vu, 0);
+        ByteBuffer u = TestFrames.slice(vu, 1);
+
+        // Even-sized interleaved chroma takes OpenCV's 20-bit conversion, whose rounding
+        // can differ from our 8-bit fixed point by one level; random luma covers Y < 16
+        assertTrue(maxDifference(y, WIDTH, u, v, uvRowStride, 2) <= 1);
+    }
+
+    @Test
+    public void region_matchesFullFrameInsideAndLeavesRestUntouched() {
+        ByteBuffer y = TestFrames.randomDirect(WIDTH * HEIGHT, 13);
+        ByteBuffer u = TestFrames.randomDirect(WIDTH * HEIGHT / 4, 14);
+        ByteBuffer v = TestFrames.randomDirect(WIDTH * HEIGHT / 4, 15);
+        byte[] expected = new byte[WIDTH * HEIGHT * 3];
+        YuvConverter.yuvToRgb(y, WIDTH, u, v, WIDTH / 2, 1, WIDTH, HEIGHT, expected);
+
+        NativeRenderer.nativeClearOutput(WIDTH, HEIGHT);
+        RegionOfInterest region = new RegionOfInterest(200, 100, 640, 360);
+        assertTrue(NativeRenderer.nativeProcessYuvRegion(y, WIDTH, u, v, WIDTH / 2, 1, WIDTH, HEIGHT,
+                region.left, region.top, region.right, region.bottom));
+        assertFalse(NativeRenderer.nativeProcessYuvRegion(y, WIDTH, u, v, WIDTH / 2, 1, WIDTH, HEIGHT,
+                1, 0, 10, 10));
+
+        ByteBuffer out = NativeRenderer.nativeGetOutputBuffer();
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                boolean inside = col >= region.left && col < region.right
+                        && row >= region.top && row < region.bottom;
+                int i = (row * WIDTH + col) * 3;
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(inside ? expected[i + c] : 0, out.get(i + c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lowRes_fillsBlocksFromTheirCentre() {
+        ByteBuffer y = TestFrames.randomDirect(WIDTH * HEIGHT, 16);
+        ByteBuffer u = TestFrames.randomDirect(WIDTH * HEIGHT / 4, 17);
+        ByteBuffer v = TestFrames.randomDirect(WIDTH * HEIGHT / 4, 18);
+        byte[] expected = new byte[WIDTH * HEIGHT * 3];
+        YuvConverter.yuvToRgb(y, WIDTH, u, v, WIDTH / 2, 1, WIDTH, HEIGHT, expected);
+
+        assertTrue(NativeRenderer.nativeProcessYuvLowRes(y, WIDTH, u, v, WIDTH / 2, 1, WIDTH, HEIGHT, 8));
+
+        ByteBuffer out = NativeRenderer.nativeGetOutputBuffer();
+        int centre = (12 * WIDTH + 20) * 3;
+        for (int row = 8; row < 16; row++) {
+            for (int col = 16; col < 24; col++) {
+                int i = (row * WIDTH + col) * 3;
+                assertEquals(expected[centre], out.get(i));
+                assertEquals(expected[centre + 2], out.get(i + 2));
+            }
+        }
+    }
+
+    @Test
+    public void heapBuffers_areRejected() {
+        ByteBuffer y = ByteBuffer.allocate(WIDTH * HEIGHT);
+        ByteBuffer uv = ByteBuffer.allocate(WIDTH * HEIGHT / 4);
+        assertFalse(NativeRenderer.nativeProcessYuvPlanes(y, WIDTH, uv, uv, WIDTH / 2, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void undersizedPlanes_areRejected() {
+        ByteBuffer y = TestFrames.randomDirect(WIDTH * HEIGHT - 1, 6);
+        ByteBuffer uv = TestFrames.randomDirect(WIDTH * HEIGHT / 4, 7);
+        assertFalse(NativeRenderer.nativeProcessYuvPlanes(y, WIDTH, uv, uv, WIDTH / 2, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void nativeConversion_beatsJava_benchmark() {
+        ByteBuffer y = TestFrames.randomDirect(WIDTH * HEIGHT, 8);
+        ByteBuffer vu = TestFrames.randomDirect(WIDTH * HEIGHT / 2, 9);
+        ByteBuffer v = TestFrames.slice(vu, 0);
+        ByteBuffer u = TestFrames.slice(vu, 1);
+        byte[] javaOut = new byte[WIDTH * HEIGHT * 3];
+
+        long nativeNanos = Benchmarks.bestTimeNanos(() ->
+                NativeRenderer.nativeProcessYuvPlanes(y, WIDTH, u, v, WIDTH, 2, WIDTH, HEIGHT), 10);
+        long javaNanos = Benchmarks.bestTimeNanos(() ->
+                YuvConverter.yuvToRgb(y, WIDTH, u, v, WIDTH, 2, WIDTH, HEIGHT, javaOut), 10);
+
+        // Benchmark only: native conversion has the Java fallback's time as its budget
+        Benchmarks.assertWithinBudget("Native YUV->RGB " + WIDTH + "x" + HEIGHT + " vs Java",
+                nativeNanos, javaNanos);
+    }
+
+    private static int maxDifference(ByteBuffer y, int yRowStride, ByteBuffer u, ByteBuffer v,
+                                     int uvRowStride, int uvPixelStride) {
+        assertTrue(NativeRenderer.nativeProcessYuvPlanes(y, yRowStride, u, v,
+                uvRowStride, uvPixelStride, WIDTH, HEIGHT));
+        ByteBuffer nativeOut = NativeRenderer.nativeGetOutputBuffer();
+        assertNotNull(nativeOut);
+        assertEquals(WIDTH * HEIGHT * 3, nativeOut.capacity());
+
+        byte[] javaOut = new byte[WIDTH * HEIGHT * 3];
+        YuvConverter.yuvToRgb(y, yRowStride, u, v, uvRowStride, uvPixelStride, WIDTH, HEIGHT, javaOut);
+
+        int max = 0;
+        for (int i = 0; i < javaOut.length; i++) {
+            max = Math.max(max, Math.abs((nativeOut.get(i) & 0xFF) - (javaOut[i] & 0xFF)));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,36 @@
+package com.nachiket.opencvedgedetector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RegionOfInterestTest {
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 120;
+
+    @Test
+    public void normalize_mergesOverlapsAndDropsEmpty() {
+        List<RegionOfInterest> regions = RegionOfInterest.normalize(Arrays.asList(
+                new RegionOfInterest(0, 0, 10, 10),
+                new RegionOfInterest(5, 5, 20, 20),
+                new RegionOfInterest(30, 30, 30, 40),
+                new RegionOfInterest(50, 50, 60, 60),
+                new RegionOfInterest(18, 0, 25, 3)));
+
+        assertEquals(2, regions.size());
+        assertEquals(new RegionOfInterest(0, 0, 25, 20), regions.get(0));
+        assertEquals(new RegionOfInterest(50, 50, 60, 60), regions.get(1));
+    }
+
+    @Test
+    public void alignToChroma_snapsOutwardsWithinFrame() {
+        assertEquals(new RegionOfInterest(2, 4, 10, 12),
+                new RegionOfInterest(3, 5, 9, 11).alignToChroma(WIDTH, HEIGHT));
+        // Odd frame sizes: the right and bottom edges stop at the frame
+        assertEquals(new RegionOfInterest(156, 116, 159, 119),
+                new RegionOfInterest(157, 117, 159, 119).alignToChroma(159, 119));
+    }
+}
@@ -0,0 +1,28 @@
+package com.nachiket.opencvedgedetector;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/** Frame fixtures shared by the unit tests. */
+final class TestFrames {
+
+    private TestFrames() {
+    }
+
+    /** Direct buffer of {@code size} random bytes, reproducible from {@code seed}. */
+    static ByteBuffer randomDirect(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(data);
+        buffer.position(0);
+        return buffer;
+    }
+
+    /** View of {@code buffer} from {@code offset}, e.g. the second plane of interleaved chroma. */
+    static ByteBuffer slice(ByteBuffer buffer, int offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        return view.slice();
+    }
+}